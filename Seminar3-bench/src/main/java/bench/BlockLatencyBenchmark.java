@@ -0,0 +1,108 @@
+package bench;
+
+import AES.AESBitsliced;
+import AES.AESKey;
+import DES.DES;
+import DES.DESEngine;
+import DES.TripleDES;
+import DES.TripleDESEngine;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to encrypt a single block with an already expanded key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class BlockLatencyBenchmark {
+
+    private static final String DES_KEY = "3b3898371520f75e";
+    private static final String DES_BLOCK = "8f03456d3f78e2c5";
+
+    private final byte[] aesIn = new byte[16 * AESBitsliced.PARALLEL_BLOCKS];
+    private final byte[] aesOut = new byte[16 * AESBitsliced.PARALLEL_BLOCKS];
+    private final byte[] desIn = new byte[8];
+    private final byte[] desOut = new byte[8];
+
+    private AESKey aesKey;
+    private AESBitsliced bitsliced;
+    private DESEngine des;
+    private TripleDESEngine tripleDes;
+    private Cipher jdkAes;
+    private Cipher jdkDesede;
+
+    @Setup
+    public void setup() throws Exception {
+        aesKey = new AESKey(new byte[16]);
+        bitsliced = new AESBitsliced(aesKey);
+        des = new DESEngine(new byte[8], true);
+        tripleDes = new TripleDESEngine(new byte[24], true);
+        jdkAes = Cipher.getInstance("AES/ECB/NoPadding");
+        jdkAes.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(new byte[16], "AES"));
+        jdkDesede = Cipher.getInstance("DESede/ECB/NoPadding");
+        jdkDesede.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(new byte[24], "DESede"));
+    }
+
+    // ---------- AES ----------
+    @Benchmark
+    public byte[] aesTable() {
+        aesKey.encryptBlock(aesIn, 0, aesOut, 0);
+        return aesOut;
+    }
+
+    /** Equivalent inverse cipher; should cost the same as {@link #aesTable()}. */
+    @Benchmark
+    public byte[] aesTableDecrypt() {
+        aesKey.decryptBlock(aesIn, 0, aesOut, 0);
+        return aesOut;
+    }
+
+    /** One pass of the circuit; it always covers eight blocks, so this is the latency of a single block too. */
+    @Benchmark
+    public byte[] aesBitsliced() {
+        bitsliced.encryptBlocks(aesIn, 0, aesOut, 0, 1);
+        return aesOut;
+    }
+
+    @Benchmark
+    public int aesJdk() throws Exception {
+        return jdkAes.doFinal(aesIn, 0, 16, aesOut, 0);
+    }
+
+    // ---------- DES / 3DES ----------
+    @Benchmark
+    public byte[] desEngine() {
+        des.processBlock(desIn, 0, desOut, 0);
+        return desOut;
+    }
+
+    /** IP, 48 rounds, FP; compare with three {@link #desEngine()} calls. */
+    @Benchmark
+    public byte[] tripleDesEngine() {
+        tripleDes.processBlock(desIn, 0, desOut, 0);
+        return desOut;
+    }
+
+    /** The bit-array teaching implementation, including its key schedule and hex parsing. */
+    @Benchmark
+    public String desBitArray() {
+        return DES.encryptBlock(DES_BLOCK, DES_KEY);
+    }
+
+    @Benchmark
+    public String tripleDesBitArray() {
+        return TripleDES.encryptBlock(DES_BLOCK, DES_KEY, DES_KEY, DES_KEY);
+    }
+
+    @Benchmark
+    public int desedeJdk() throws Exception {
+        return jdkDesede.doFinal(desIn, 0, 8, desOut, 0);
+    }
+}
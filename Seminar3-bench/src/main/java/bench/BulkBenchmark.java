@@ -0,0 +1,200 @@
+package bench;
+
+import AES.AES;
+import AES.AESBitsliced;
+import AES.AESKey;
+import DES.DES;
+import DES.DESCBC;
+import DES.DESCTR;
+import DES.DESEngine;
+import org.openjdk.jmh.annotations.*;
+import util.BlockCipher;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bulk encryption throughput. The {@code bytes} counter is reported per second,
+ * i.e. it reads directly as bytes/s; divide by 10^6 for MB/s.
+ * Add {@code -prof gc} to see the allocation rate of each path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BulkBenchmark {
+
+    @State(Scope.Thread)
+    public static class Data {
+        @Param({"1024", "65536", "1048576", "67108864"})
+        int size;
+
+        byte[] input;
+        byte[] iv = new byte[16];
+
+        @Setup
+        public void setup() {
+            input = new byte[size];
+            new Random(size).nextBytes(input);
+        }
+    }
+
+    /** Table engine and the JDK provider in the same mode. */
+    @State(Scope.Thread)
+    public static class AesMode {
+        @Param({"ECB", "CBC", "CTR"})
+        String mode;
+
+        AESKey key;
+        Cipher jdk;
+
+        @Setup
+        public void setup() throws Exception {
+            byte[] raw = new byte[16];
+            key = new AESKey(raw);
+            SecretKeySpec spec = new SecretKeySpec(raw, "AES");
+            switch (mode) {
+                case "ECB" -> {
+                    jdk = Cipher.getInstance("AES/ECB/PKCS5Padding");
+                    jdk.init(Cipher.ENCRYPT_MODE, spec);
+                }
+                case "CBC" -> {
+                    jdk = Cipher.getInstance("AES/CBC/PKCS5Padding");
+                    jdk.init(Cipher.ENCRYPT_MODE, spec, new IvParameterSpec(new byte[16]));
+                }
+                default -> {
+                    jdk = Cipher.getInstance("AES/CTR/NoPadding");
+                    jdk.init(Cipher.ENCRYPT_MODE, spec, new IvParameterSpec(new byte[16]));
+                }
+            }
+        }
+    }
+
+    /** DES or 3DES in the same chaining mode for both our code and the JDK provider. */
+    @State(Scope.Thread)
+    public static class DesMode {
+        @Param({"DES", "DESede"})
+        String alg;
+
+        @Param({"CBC", "CTR"})
+        String mode;
+
+        byte[] iv = new byte[8];
+        BlockCipher cipher;            // expanded once
+        Supplier<BlockCipher> ciphers; // CTR: the same engine for every work unit
+        Cipher jdk;
+
+        @Setup
+        public void setup() throws Exception {
+            byte[] raw = new byte[alg.equals("DES") ? 8 : 24];
+            BlockCipher engine = DES.engine(raw, true);
+            cipher = engine;
+            ciphers = () -> engine;
+            jdk = Cipher.getInstance(alg + "/" + mode + (mode.equals("CBC") ? "/PKCS5Padding" : "/NoPadding"));
+            jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(raw, alg), new IvParameterSpec(iv));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Engines {
+        AESBitsliced bitsliced;
+        DESEngine des;
+        Cipher jdkDes;
+        Cipher jdkDesede;
+        byte[] desOut;
+
+        @Setup
+        public void setup(Data data) throws Exception {
+            bitsliced = new AESBitsliced(new byte[16]);
+            des = new DESEngine(new byte[8], true);
+            jdkDes = Cipher.getInstance("DES/ECB/NoPadding");
+            jdkDes.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(new byte[8], "DES"));
+            jdkDesede = Cipher.getInstance("DESede/ECB/NoPadding");
+            jdkDesede.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(new byte[24], "DESede"));
+            desOut = new byte[data.size];
+        }
+    }
+
+    /** Bytes processed; JMH reports it per second. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    // ---------- AES ----------
+    @Benchmark
+    public byte[] aesTable(Data data, AesMode aes, Bytes bytes) {
+        bytes.bytes += data.size;
+        return switch (aes.mode) {
+            case "ECB" -> AES.encryptECB(data.input, aes.key);
+            case "CBC" -> AES.encryptCBC(data.input, aes.key, data.iv);
+            default -> AES.encryptCTR(data.input, aes.key, data.iv);
+        };
+    }
+
+    @Benchmark
+    public byte[] aesJdk(Data data, AesMode aes, Bytes bytes) throws Exception {
+        bytes.bytes += data.size;
+        return aes.jdk.doFinal(data.input);
+    }
+
+    @Benchmark
+    public byte[] aesBitslicedEcb(Data data, Engines engines, Bytes bytes) {
+        bytes.bytes += data.size;
+        return AES.encryptECB(data.input, engines.bitsliced);
+    }
+
+    @Benchmark
+    public byte[] aesBitslicedCtr(Data data, Engines engines, Bytes bytes) {
+        bytes.bytes += data.size;
+        return AES.encryptCTR(data.input, engines.bitsliced, data.iv);
+    }
+
+    // ---------- DES (ECB, no padding) ----------
+    @Benchmark
+    public byte[] desEngineEcb(Data data, Engines engines, Bytes bytes) {
+        bytes.bytes += data.size;
+        for (int i = 0; i < data.size; i += 8) {
+            engines.des.processBlock(data.input, i, engines.desOut, i);
+        }
+        return engines.desOut;
+    }
+
+    @Benchmark
+    public int desJdkEcb(Data data, Engines engines, Bytes bytes) throws Exception {
+        bytes.bytes += data.size;
+        return engines.jdkDes.doFinal(data.input, 0, data.size, engines.desOut, 0);
+    }
+
+    @Benchmark
+    public int desedeJdkEcb(Data data, Engines engines, Bytes bytes) throws Exception {
+        bytes.bytes += data.size;
+        return engines.jdkDesede.doFinal(data.input, 0, data.size, engines.desOut, 0);
+    }
+
+    // ---------- DES / 3DES (CBC, CTR) ----------
+    @Benchmark
+    public byte[] desModes(Data data, DesMode des, Bytes bytes) {
+        bytes.bytes += data.size;
+        return des.mode.equals("CBC")
+                ? DESCBC.encrypt(data.input, des.cipher, des.iv)
+                : DESCTR.crypt(data.input, des.ciphers, des.iv, DESCTR.DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    @Benchmark
+    public byte[] desModesJdk(Data data, DesMode des, Bytes bytes) throws Exception {
+        bytes.bytes += data.size;
+        return des.jdk.doFinal(data.input);
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import AES.AES;
+import AES.AESKey;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many small independent CBC messages: one multi-buffer batch call against a
+ * loop of single {@link AES#encryptCBC(byte[], AESKey, byte[])} calls.
+ * {@code messages} = messages/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class CbcBatchBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"16", "64", "256", "1024"})
+    int messageSize;
+
+    private AESKey key;
+    private byte[][] plaintexts;
+    private byte[][] ivs;
+
+    /** Messages encrypted; JMH reports it per second. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Messages {
+        public long messages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            messages = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(19);
+        byte[] raw = new byte[16];
+        rnd.nextBytes(raw);
+        key = new AESKey(raw);
+        plaintexts = new byte[BATCH][messageSize];
+        ivs = new byte[BATCH][16];
+        for (int i = 0; i < BATCH; i++) {
+            rnd.nextBytes(plaintexts[i]);
+            rnd.nextBytes(ivs[i]);
+        }
+    }
+
+    @Benchmark
+    public byte[][] loop(Messages counter) {
+        byte[][] out = new byte[BATCH][];
+        for (int i = 0; i < BATCH; i++) {
+            out[i] = AES.encryptCBC(plaintexts[i], key, ivs[i]);
+        }
+        counter.messages += BATCH;
+        return out;
+    }
+
+    @Benchmark
+    public byte[][] batch(Messages counter) {
+        counter.messages += BATCH;
+        return AES.encryptCBC(plaintexts, key, ivs);
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import AES.AESBitsliced;
+import AES.AESKey;
+import DES.DESEngine;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning raw key bytes into something that can encrypt.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class KeyScheduleBenchmark {
+
+    /** AES key material per size; DES benchmarks do not use it, so they run once. */
+    @State(Scope.Thread)
+    public static class AesKeyBytes {
+        @Param({"128", "192", "256"})
+        int keyBits;
+
+        byte[] raw;
+        SecretKeySpec spec;
+
+        @Setup
+        public void setup() {
+            raw = new byte[keyBits / 8];
+            spec = new SecretKeySpec(raw, "AES");
+        }
+    }
+
+    private final byte[] desRaw = new byte[8];
+    private SecretKeySpec desedeSpec;
+    private Cipher jdkAes;
+    private Cipher jdkDesede;
+
+    @Setup
+    public void setup() throws Exception {
+        desedeSpec = new SecretKeySpec(new byte[24], "DESede");
+        jdkAes = Cipher.getInstance("AES/ECB/NoPadding");
+        jdkDesede = Cipher.getInstance("DESede/ECB/NoPadding");
+    }
+
+    /** Forward and inverse T-table schedules. */
+    @Benchmark
+    public AESKey aesKey(AesKeyBytes key) {
+        return new AESKey(key.raw);
+    }
+
+    @Benchmark
+    public AESBitsliced aesBitsliced(AesKeyBytes key) {
+        return new AESBitsliced(key.raw);
+    }
+
+    @Benchmark
+    public Cipher aesJdkInit(AesKeyBytes key) throws Exception {
+        jdkAes.init(Cipher.ENCRYPT_MODE, key.spec);
+        return jdkAes;
+    }
+
+    @Benchmark
+    public DESEngine desEngine() {
+        return new DESEngine(desRaw, true);
+    }
+
+    @Benchmark
+    public Cipher desedeJdkInit() throws Exception {
+        jdkDesede.init(Cipher.ENCRYPT_MODE, desedeSpec);
+        return jdkDesede;
+    }
+}
@@ -1,5 +1,11 @@
 package AES;
 
+import util.ConsoleTraceListener;
+import util.PKCS7;
+import util.TraceListener;
+import util.Xor;
+
+import java.util.Arrays;
 import java.util.Scanner;
 
 import static AES.AES128.byteArrayToHexString;
@@ -23,16 +29,7 @@ public class AES {
     //              PKCS#7 Padding
     // -------------------------------------------------
     public static byte[] padPKCS7(byte[] input) {
-        int padLen = BLOCK_SIZE - (input.length % BLOCK_SIZE);
-        if (padLen == 0) {
-            padLen = BLOCK_SIZE;
-        }
-        byte[] out = new byte[input.length + padLen];
-        System.arraycopy(input, 0, out, 0, input.length);
-        for (int i = input.length; i < out.length; i++) {
-            out[i] = (byte) padLen;
-        }
-        return out;
+        return PKCS7.pad(input, BLOCK_SIZE);
     }
 
     public static byte[] unpadPKCS7(byte[] padded) {
@@ -46,192 +43,275 @@ public class AES {
     // -------------------------------------------------
     //            AES-ECB Encryption/Decryption
     // -------------------------------------------------
-    public static byte[] encryptECB(byte[] plaintext, int variant) {
+    public static byte[] encryptECB(byte[] plaintext, AESKey key) {
         byte[] padded = padPKCS7(plaintext);
         byte[] ciphertext = new byte[padded.length];
 
         for (int i = 0; i < padded.length; i += BLOCK_SIZE) {
-            byte[] block = new byte[BLOCK_SIZE];
-            System.arraycopy(padded, i, block, 0, BLOCK_SIZE);
-
-            byte[] enc;
-            switch (variant) {
-                case 128 -> enc = AES128.encryptBlockDetailed(
-                        block,
-                        hexStringToByteArray(AES128_KEY)
-                );
-                case 192 -> enc = AES192.encryptBlockDetailed192(
-                        block,
-                        hexStringToByteArray(AES192_KEY)
-                );
-                case 256 -> enc = AES256.encryptBlockDetailed256(
-                        block,
-                        hexStringToByteArray(AES256_KEY)
-                );
-                default -> throw new IllegalArgumentException("Unsupported key size.");
-            }
-            System.arraycopy(enc, 0, ciphertext, i, BLOCK_SIZE);
+            key.encryptBlock(padded, i, ciphertext, i);
         }
         return ciphertext;
     }
 
-    public static byte[] decryptECB(byte[] ciphertext, int variant) {
+    public static byte[] decryptECB(byte[] ciphertext, AESKey key) {
+        if (ciphertext.length % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Ciphertext length must be multiple of block size.");
+        }
         byte[] tmp = new byte[ciphertext.length];
 
         for (int i = 0; i < ciphertext.length; i += BLOCK_SIZE) {
-            byte[] block = new byte[BLOCK_SIZE];
-            System.arraycopy(ciphertext, i, block, 0, BLOCK_SIZE);
-
-            byte[] dec;
-            switch (variant) {
-                case 128 -> dec = AES128.decryptBlockDetailed(
-                        block,
-                        hexStringToByteArray(AES128_KEY)
-                );
-                case 192 -> dec = AES192.decryptBlockDetailed192(
-                        block,
-                        hexStringToByteArray(AES192_KEY)
-                );
-                case 256 -> dec = AES256.decryptBlockDetailed256(
-                        block,
-                        hexStringToByteArray(AES256_KEY)
-                );
-                default -> throw new IllegalArgumentException("Unsupported key size.");
-            }
-            System.arraycopy(dec, 0, tmp, i, BLOCK_SIZE);
+            key.decryptBlock(ciphertext, i, tmp, i);
         }
         return unpadPKCS7(tmp);
     }
 
+    /** ECB with the constant-time bitsliced engine instead of the T-tables. */
+    public static byte[] encryptECB(byte[] plaintext, AESBitsliced key) {
+        byte[] padded = padPKCS7(plaintext); // fresh copy, encrypted in place
+        key.encryptBlocks(padded, 0, padded, 0, padded.length / BLOCK_SIZE);
+        return padded;
+    }
+
+    public static byte[] decryptECB(byte[] ciphertext, AESBitsliced key) {
+        if (ciphertext.length % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Ciphertext length must be multiple of block size.");
+        }
+        byte[] tmp = new byte[ciphertext.length];
+        key.decryptBlocks(ciphertext, 0, tmp, 0, ciphertext.length / BLOCK_SIZE);
+        return unpadPKCS7(tmp);
+    }
+
     // -------------------------------------------------
     //            AES-CBC Encryption/Decryption
     // -------------------------------------------------
 
     /**
      * Encrypts plaintext in AES-CBC mode using a fixed all-zero IV.
-     * Debug prints are added to show each block's transformation.
      */
-    public static byte[] encryptCBC(byte[] plaintext, int variant) {
-        byte[] padded = padPKCS7(plaintext);
-        byte[] ciphertext = new byte[padded.length];
-
-        // For simplicity, use a zero IV (16 bytes)
-        byte[] iv = new byte[BLOCK_SIZE]; // all zero by default
-
-        for (int i = 0; i < padded.length; i += BLOCK_SIZE) {
-            System.out.println("=== Encryption: Processing Block " + (i / BLOCK_SIZE + 1) + " ===");
+    public static byte[] encryptCBC(byte[] plaintext, AESKey key) {
+        return encryptCBC(plaintext, key, new byte[BLOCK_SIZE]);
+    }
 
-            // Extract current block from padded plaintext
-            byte[] block = new byte[BLOCK_SIZE];
-            System.arraycopy(padded, i, block, 0, BLOCK_SIZE);
-            System.out.println("Original block (from padded plaintext): " + byteArrayToHexString(block));
+    /**
+     * Encrypts plaintext in AES-CBC mode with the given 16-byte IV.
+     */
+    public static byte[] encryptCBC(byte[] plaintext, AESKey key, byte[] iv) {
+        return encryptCBC(plaintext, key, iv, null);
+    }
 
-            // Show the current IV before XORing
-            System.out.println("Current IV: " + byteArrayToHexString(iv));
+    /**
+     * Encrypts plaintext in AES-CBC mode, reporting each block's transformation
+     * to {@code trace} (may be {@code null}).
+     */
+    public static byte[] encryptCBC(byte[] plaintext, AESKey key, byte[] iv, TraceListener trace) {
+        checkIV(iv);
+        byte[] ciphertext = padPKCS7(plaintext); // fresh copy, encrypted in place
 
-            // XOR block with IV (this is the input to the AES encryption)
-            for (int j = 0; j < BLOCK_SIZE; j++) {
-                block[j] ^= iv[j];
-            }
-            System.out.println("Block after XOR with IV: " + byteArrayToHexString(block));
-
-            // Encrypt the block using the appropriate AES variant
-            byte[] enc;
-            switch (variant) {
-                case 128:
-                    enc = AES128.encryptBlockDetailed(
-                            block,
-                            hexStringToByteArray(AES128_KEY)
-                    );
-                    break;
-                case 192:
-                    enc = AES192.encryptBlockDetailed192(
-                            block,
-                            hexStringToByteArray(AES192_KEY)
-                    );
-                    break;
-                case 256:
-                    enc = AES256.encryptBlockDetailed256(
-                            block,
-                            hexStringToByteArray(AES256_KEY)
-                    );
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported key size.");
+        for (int i = 0; i < ciphertext.length; i += BLOCK_SIZE) {
+            // Chaining value: the IV for the first block, else the previous ciphertext block
+            byte[] chain = i == 0 ? iv : ciphertext;
+            int chainOff = i == 0 ? 0 : i - BLOCK_SIZE;
+            if (trace != null) {
+                trace.beginBlock(i / BLOCK_SIZE + 1, hex(ciphertext, i));
+                trace.step("Current IV", hex(chain, chainOff));
             }
-            System.out.println("Encrypted block: " + byteArrayToHexString(enc));
 
-            // Copy encrypted block to ciphertext array
-            System.arraycopy(enc, 0, ciphertext, i, BLOCK_SIZE);
+            Xor.xor(ciphertext, i, chain, chainOff, ciphertext, i, BLOCK_SIZE);
+            if (trace != null) {
+                trace.step("Block after XOR with IV", hex(ciphertext, i));
+            }
 
-            // Update IV for next block (chaining)
-            iv = enc;
-            System.out.println();
+            key.encryptBlock(ciphertext, i, ciphertext, i);
+            if (trace != null) {
+                trace.step("Encrypted block", hex(ciphertext, i));
+            }
         }
         return ciphertext;
     }
 
+    /**
+     * Encrypts many independent messages, each in AES-CBC mode with PKCS#7 padding
+     * under its own IV, interleaving four of them at a time (see {@link AESCBC#encryptAll}).
+     */
+    public static byte[][] encryptCBC(byte[][] plaintexts, AESKey key, byte[][] ivs) {
+        return AESCBC.encryptAll(plaintexts, key, ivs);
+    }
+
     /**
      * Decrypts ciphertext in AES-CBC mode using a fixed all-zero IV.
-     * Debug prints are added to show each block's transformation.
      */
-    public static byte[] decryptCBC(byte[] ciphertext, int variant) {
+    public static byte[] decryptCBC(byte[] ciphertext, AESKey key) {
+        return decryptCBC(ciphertext, key, new byte[BLOCK_SIZE]);
+    }
+
+    /**
+     * Decrypts ciphertext in AES-CBC mode with the given 16-byte IV.
+     * Block decryptions are independent, so large inputs are split across cores
+     * (see {@link AESCBC}) and written into one preallocated buffer.
+     */
+    public static byte[] decryptCBC(byte[] ciphertext, AESKey key, byte[] iv) {
+        return unpadPKCS7(AESCBC.decrypt(ciphertext, key, iv));
+    }
+
+    /**
+     * Decrypts ciphertext in AES-CBC mode, reporting each block to {@code trace}.
+     * Without a listener this is the parallel {@link #decryptCBC(byte[], AESKey, byte[])};
+     * with one, blocks are decrypted in order so the trace reads top to bottom.
+     */
+    public static byte[] decryptCBC(byte[] ciphertext, AESKey key, byte[] iv, TraceListener trace) {
+        if (trace == null) {
+            return decryptCBC(ciphertext, key, iv);
+        }
+        checkIV(iv);
         if (ciphertext.length % BLOCK_SIZE != 0) {
             throw new IllegalArgumentException("Ciphertext length must be multiple of block size.");
         }
-
-        byte[] tmp = new byte[ciphertext.length];
-        byte[] iv = new byte[BLOCK_SIZE]; // zero IV
+        byte[] plain = new byte[ciphertext.length];
 
         for (int i = 0; i < ciphertext.length; i += BLOCK_SIZE) {
-            System.out.println("=== Decryption: Processing Block " + (i / BLOCK_SIZE + 1) + " ===");
-
-            // Get the current ciphertext block
-            byte[] block = new byte[BLOCK_SIZE];
-            System.arraycopy(ciphertext, i, block, 0, BLOCK_SIZE);
-            System.out.println("Ciphertext block: " + byteArrayToHexString(block));
-            System.out.println("Current IV: " + byteArrayToHexString(iv));
-
-            // Decrypt the ciphertext block using the chosen AES variant
-            byte[] dec;
-            switch (variant) {
-                case 128:
-                    dec = AES128.decryptBlockDetailed(
-                            block,
-                            hexStringToByteArray(AES128_KEY)
-                    );
-                    break;
-                case 192:
-                    dec = AES192.decryptBlockDetailed192(
-                            block,
-                            hexStringToByteArray(AES192_KEY)
-                    );
-                    break;
-                case 256:
-                    dec = AES256.decryptBlockDetailed256(
-                            block,
-                            hexStringToByteArray(AES256_KEY)
-                    );
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported key size.");
-            }
-            System.out.println("Decrypted block (before XOR): " + byteArrayToHexString(dec));
+            byte[] chain = i == 0 ? iv : ciphertext;
+            int chainOff = i == 0 ? 0 : i - BLOCK_SIZE;
+            trace.beginBlock(i / BLOCK_SIZE + 1, hex(ciphertext, i));
+
+            key.decryptBlock(ciphertext, i, plain, i);
+            trace.step("Decrypted block", hex(plain, i));
 
-            // XOR decrypted block with IV to retrieve original plaintext block
             for (int j = 0; j < BLOCK_SIZE; j++) {
-                dec[j] ^= iv[j];
+                plain[i + j] ^= chain[chainOff + j];
             }
-            System.out.println("Recovered plaintext block after XOR with IV: " + byteArrayToHexString(dec));
+            trace.step("Block after XOR with IV", hex(plain, i));
+        }
+        return unpadPKCS7(plain);
+    }
+
+    private static String hex(byte[] b, int off) {
+        return byteArrayToHexString(Arrays.copyOfRange(b, off, off + BLOCK_SIZE));
+    }
 
-            // Copy resulting plaintext block into temporary array
-            System.arraycopy(dec, 0, tmp, i, BLOCK_SIZE);
+    // -------------------------------------------------
+    //     AES-CBC-CS3 (ciphertext stealing, no padding)
+    // -------------------------------------------------
 
-            // Update IV to be the current ciphertext block for next iteration
-            iv = block;
-            System.out.println();
+    /**
+     * Encrypts in CBC-CS3 mode (NIST SP 800-38A addendum): CBC over the
+     * zero-extended last block, then the last two ciphertext blocks are swapped
+     * and the final one cut to the length of the plaintext tail. The ciphertext
+     * is exactly as long as the plaintext (at least one block), and the input is
+     * read in place instead of being padded into a copy.
+     */
+    public static byte[] encryptCBCCS3(byte[] plaintext, AESKey key, byte[] iv) {
+        checkIV(iv);
+        int len = plaintext.length;
+        if (len < BLOCK_SIZE) {
+            throw new IllegalArgumentException("CBC-CS3 input must be at least one block.");
         }
-        return unpadPKCS7(tmp);
+        byte[] ciphertext = new byte[len];
+        int last = (len - 1) / BLOCK_SIZE * BLOCK_SIZE; // start of the (partial) last block
+        int tail = len - last;                          // 1..16 bytes
+
+        for (int i = 0; i < last; i += BLOCK_SIZE) {
+            byte[] chain = i == 0 ? iv : ciphertext;
+            int chainOff = i == 0 ? 0 : i - BLOCK_SIZE;
+            Xor.xor(plaintext, i, chain, chainOff, ciphertext, i, BLOCK_SIZE);
+            key.encryptBlock(ciphertext, i, ciphertext, i);
+        }
+        if (last == 0) {
+            // One block: plain CBC, nothing to swap
+            Xor.xor(plaintext, 0, iv, 0, ciphertext, 0, BLOCK_SIZE);
+            key.encryptBlock(ciphertext, 0, ciphertext, 0);
+            return ciphertext;
+        }
+
+        // C[n-1] is already at 'last - 16'; C[n] = E(C[n-1] xor (P[n] || 0...))
+        int prev = last - BLOCK_SIZE;
+        byte[] stolen = Arrays.copyOfRange(ciphertext, prev, last);
+        Xor.xor(stolen, 0, plaintext, last, ciphertext, prev, tail);
+        key.encryptBlock(ciphertext, prev, ciphertext, prev);
+        System.arraycopy(stolen, 0, ciphertext, last, tail);
+        return ciphertext;
+    }
+
+    /**
+     * Decrypts CBC-CS3 ciphertext. All blocks before the swapped pair go through
+     * the parallel {@link AESCBC} path.
+     */
+    public static byte[] decryptCBCCS3(byte[] ciphertext, AESKey key, byte[] iv) {
+        checkIV(iv);
+        int len = ciphertext.length;
+        if (len < BLOCK_SIZE) {
+            throw new IllegalArgumentException("CBC-CS3 input must be at least one block.");
+        }
+        byte[] plaintext = new byte[len];
+        int last = (len - 1) / BLOCK_SIZE * BLOCK_SIZE;
+        int tail = len - last;
+
+        if (last == 0) {
+            key.decryptBlock(ciphertext, 0, plaintext, 0);
+            Xor.xor(plaintext, 0, iv, 0, plaintext, 0, BLOCK_SIZE);
+            return plaintext;
+        }
+
+        int prev = last - BLOCK_SIZE;
+        AESCBC.decrypt(ciphertext, 0, prev, plaintext, 0, key, iv, AESCBC.DEFAULT_PARALLEL_THRESHOLD);
+
+        // Z = D(C[n]); C[n-1] = C*[n-1] || Z[tail..]; P[n] = (Z xor C[n-1])[0..tail]
+        byte[] z = new byte[BLOCK_SIZE];
+        key.decryptBlock(ciphertext, prev, z, 0);
+        byte[] full = z.clone();
+        System.arraycopy(ciphertext, last, full, 0, tail);
+        Xor.xor(z, 0, full, 0, plaintext, last, tail);
+
+        // P[n-1] = D(C[n-1]) xor C[n-2] (or the IV)
+        key.decryptBlock(full, 0, plaintext, prev);
+        byte[] chain = prev == 0 ? iv : ciphertext;
+        int chainOff = prev == 0 ? 0 : prev - BLOCK_SIZE;
+        Xor.xor(plaintext, prev, chain, chainOff, plaintext, prev, BLOCK_SIZE);
+        return plaintext;
+    }
+
+    // -------------------------------------------------
+    //            AES-CTR Encryption/Decryption
+    // -------------------------------------------------
+
+    /**
+     * Encrypts plaintext in AES-CTR mode; the IV is the initial counter block.
+     * No padding is needed, so the ciphertext has the same length as the input.
+     * Large inputs are split across cores (see {@link AESCTR}).
+     */
+    public static byte[] encryptCTR(byte[] plaintext, AESKey key, byte[] iv) {
+        return AESCTR.crypt(plaintext, key, iv);
+    }
+
+    /**
+     * Decrypts AES-CTR ciphertext; identical to encryption.
+     */
+    public static byte[] decryptCTR(byte[] ciphertext, AESKey key, byte[] iv) {
+        return AESCTR.crypt(ciphertext, key, iv);
+    }
+
+    /** CTR with the constant-time bitsliced engine; same output as the table engine. */
+    public static byte[] encryptCTR(byte[] plaintext, AESBitsliced key, byte[] iv) {
+        return key.ctr(plaintext, iv);
+    }
+
+    public static byte[] decryptCTR(byte[] ciphertext, AESBitsliced key, byte[] iv) {
+        return key.ctr(ciphertext, iv);
+    }
+
+    static void checkIV(byte[] iv) {
+        if (iv == null || iv.length != BLOCK_SIZE) {
+            throw new IllegalArgumentException("IV must be " + BLOCK_SIZE + " bytes.");
+        }
+    }
+
+    /** Demo key for the chosen variant (all zero, as in the single-block demos). */
+    public static AESKey demoKey(int variant) {
+        return switch (variant) {
+            case 128 -> AESKey.fromHex(AES128_KEY);
+            case 192 -> AESKey.fromHex(AES192_KEY);
+            case 256 -> AESKey.fromHex(AES256_KEY);
+            default -> throw new IllegalArgumentException("Unsupported key size.");
+        };
     }
 
     // -------------------------------------------------
@@ -243,10 +323,10 @@ public class AES {
         // 1) Choose mode
         String mode;
         while (true) {
-            System.out.println("=== AES Mode Demo (ECB / CBC) ===");
-            System.out.print("Choose mode (ECB / CBC): ");
+            System.out.println("=== AES Mode Demo (ECB / CBC / CTR) ===");
+            System.out.print("Choose mode (ECB / CBC / CTR): ");
             mode = sc.nextLine().trim().toLowerCase();
-            if (mode.equals("ecb") || mode.equals("cbc")) {
+            if (mode.equals("ecb") || mode.equals("cbc") || mode.equals("ctr")) {
                 break;
             } else {
                 System.out.println("Invalid mode. Try again!");
@@ -274,13 +354,22 @@ public class AES {
         byte[] ciphertext;
         byte[] recovered;
 
+        // Expand the key once; every block below reuses the same schedule
+        AESKey key = demoKey(variant);
+
         // 3) Encrypt & decrypt depending on chosen mode
         if (mode.equals("ecb")) {
-            ciphertext = encryptECB(plaintext, variant);
-            recovered = decryptECB(ciphertext, variant);
+            ciphertext = encryptECB(plaintext, key);
+            recovered = decryptECB(ciphertext, key);
+        } else if (mode.equals("cbc")) {
+            byte[] iv = new byte[BLOCK_SIZE]; // all-zero demo IV
+            TraceListener trace = new ConsoleTraceListener();
+            ciphertext = encryptCBC(plaintext, key, iv, trace);
+            recovered = decryptCBC(ciphertext, key, iv, trace);
         } else {
-            ciphertext = encryptCBC(plaintext, variant);
-            recovered = decryptCBC(ciphertext, variant);
+            byte[] iv = new byte[BLOCK_SIZE]; // demo counter block; use a fresh nonce in practice
+            ciphertext = encryptCTR(plaintext, key, iv);
+            recovered = decryptCTR(ciphertext, key, iv);
         }
 
         // 4) Print results
@@ -3,7 +3,7 @@ package AES;
 public class AES128 {
 
     // ------------------------ Standard AES S-Box ------------------------
-    private static final int[] SBOX = {
+    static final int[] SBOX = {
             0x63, 0x7c, 0x77, 0x7b, 0xf2, 0x6b, 0x6f, 0xc5,
             0x30, 0x01, 0x67, 0x2b, 0xfe, 0xd7, 0xab, 0x76,
             0xca, 0x82, 0xc9, 0x7d, 0xfa, 0x59, 0x47, 0xf0,
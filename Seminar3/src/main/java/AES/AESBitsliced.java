@@ -0,0 +1,543 @@
+package AES;
+
+import util.Xor;
+
+import java.util.Arrays;
+
+import static AES.AES.BLOCK_SIZE;
+import static AES.AES128.byteArrayToHexString;
+import static AES.AES128.hexStringToByteArray;
+
+/**
+ * Constant-time, bitsliced AES that processes {@value #PARALLEL_BLOCKS} blocks per call.
+ * <p>
+ * The table engine ({@link AESEngine}) indexes TE/TD tables with secret data, so
+ * its timing depends on which cache lines are hit. Here the state of four blocks
+ * is transposed into eight {@code long}s, one per bit position of every state
+ * byte, and two such groups are processed side by side. SubBytes is a Boolean
+ * circuit (Boyar-Peralta), ShiftRows/MixColumns are shifts and rotations inside
+ * each {@code long}, and no memory access depends on the key or the data.
+ * <p>
+ * The round keys are the ones from {@link AESEngine#expandKey} (and through it
+ * {@code AES128.expandKey}, {@code AES192.expandKey192}, {@code AES256.expandKey256}),
+ * transposed once in the constructor. Instances are immutable and thread-safe.
+ * Byte order of the bit planes follows the well-known "ct64" layout of BearSSL.
+ */
+public final class AESBitsliced {
+
+    /** Number of blocks handled by one pass of the bitsliced circuit. */
+    public static final int PARALLEL_BLOCKS = 8;
+
+    private final int rounds;
+    private final long[] skey; // 8 bit planes per round key, round 0..Nr
+
+    public AESBitsliced(byte[] key) {
+        this(AESEngine.expandKey(key));
+    }
+
+    public AESBitsliced(AESKey key) {
+        this(key.encryptionSchedule());
+    }
+
+    private AESBitsliced(int[] w) {
+        this.rounds = AESEngine.rounds(w);
+        this.skey = new long[(rounds + 1) * 8];
+        long[] q = new long[8];
+        int[] rk = new int[4];
+        for (int r = 0; r <= rounds; r++) {
+            // Key words are big-endian; the bit planes are built from little-endian words
+            for (int i = 0; i < 4; i++) {
+                rk[i] = Integer.reverseBytes(w[4 * r + i]);
+            }
+            // Same round key in all four lanes, then transpose to bit planes
+            interleaveIn(q, 0, 4, rk, 0);
+            q[1] = q[2] = q[3] = q[0];
+            q[5] = q[6] = q[7] = q[4];
+            ortho(q, 0);
+            System.arraycopy(q, 0, skey, r * 8, 8);
+        }
+    }
+
+    /** Number of rounds: 10, 12 or 14. */
+    public int rounds() {
+        return rounds;
+    }
+
+    // ---------- Bulk Block Operations ----------
+
+    /**
+     * Encrypts {@code blocks} consecutive blocks from {@code in} into {@code out}
+     * (ECB). In-place operation is allowed.
+     */
+    public void encryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int blocks) {
+        process(in, inOff, out, outOff, blocks, true);
+    }
+
+    /** Decrypts {@code blocks} consecutive blocks (ECB). In-place operation is allowed. */
+    public void decryptBlocks(byte[] in, int inOff, byte[] out, int outOff, int blocks) {
+        process(in, inOff, out, outOff, blocks, false);
+    }
+
+    private void process(byte[] in, int inOff, byte[] out, int outOff, int blocks, boolean encrypt) {
+        long[] q = new long[16];
+        int[] w = new int[4 * PARALLEL_BLOCKS];
+        byte[] tail = null;
+
+        for (int done = 0; done < blocks; done += PARALLEL_BLOCKS) {
+            int n = Math.min(PARALLEL_BLOCKS, blocks - done);
+            int src = inOff + done * BLOCK_SIZE;
+            int dst = outOff + done * BLOCK_SIZE;
+            if (n == PARALLEL_BLOCKS) {
+                load(in, src, w);
+                crypt(q, w, encrypt);
+                store(w, out, dst);
+            } else {
+                // Short final batch: run the full circuit over a zero-filled copy
+                if (tail == null) {
+                    tail = new byte[PARALLEL_BLOCKS * BLOCK_SIZE];
+                }
+                Arrays.fill(tail, (byte) 0);
+                System.arraycopy(in, src, tail, 0, n * BLOCK_SIZE);
+                load(tail, 0, w);
+                crypt(q, w, encrypt);
+                store(w, tail, 0);
+                System.arraycopy(tail, 0, out, dst, n * BLOCK_SIZE);
+            }
+        }
+    }
+
+    // ---------- CTR ----------
+
+    /**
+     * AES-CTR with the same counter rules as {@link AESCTR} (128-bit big-endian
+     * increment of the IV), generating eight keystream blocks per pass.
+     */
+    public void ctr(byte[] in, int inOff, int len, byte[] out, int outOff, byte[] iv) {
+        AES.checkIV(iv);
+        long hi = AESCTR.getLong(iv, 0);
+        long lo = AESCTR.getLong(iv, 8);
+        long[] q = new long[16];
+        int[] w = new int[4 * PARALLEL_BLOCKS];
+        byte[] ks = new byte[PARALLEL_BLOCKS * BLOCK_SIZE];
+
+        for (int pos = 0; pos < len; pos += ks.length) {
+            for (int b = 0; b < PARALLEL_BLOCKS; b++) {
+                AESCTR.putLong(ks, b * BLOCK_SIZE, hi);
+                AESCTR.putLong(ks, b * BLOCK_SIZE + 8, lo);
+                if (++lo == 0) {
+                    hi++;
+                }
+            }
+            load(ks, 0, w);
+            crypt(q, w, true);
+            store(w, ks, 0);
+
+            Xor.xor(in, inOff + pos, ks, 0, out, outOff + pos, Math.min(ks.length, len - pos));
+        }
+    }
+
+    public byte[] ctr(byte[] input, byte[] iv) {
+        byte[] out = new byte[input.length];
+        ctr(input, 0, input.length, out, 0, iv);
+        return out;
+    }
+
+    // ---------- Bitsliced Core ----------
+
+    /** Transposes eight blocks of little-endian words into two groups of bit planes and back. */
+    private void crypt(long[] q, int[] w, boolean encrypt) {
+        for (int g = 0; g < 2; g++) {
+            int base = 8 * g;
+            for (int i = 0; i < 4; i++) {
+                interleaveIn(q, base + i, base + i + 4, w, 16 * g + 4 * i);
+            }
+            ortho(q, base);
+        }
+
+        if (encrypt) {
+            encrypt(q);
+        } else {
+            decrypt(q);
+        }
+
+        for (int g = 0; g < 2; g++) {
+            int base = 8 * g;
+            ortho(q, base);
+            for (int i = 0; i < 4; i++) {
+                interleaveOut(w, 16 * g + 4 * i, q[base + i], q[base + i + 4]);
+            }
+        }
+    }
+
+    private void encrypt(long[] q) {
+        addRoundKey(q, 0);
+        for (int r = 1; r < rounds; r++) {
+            for (int base = 0; base < 16; base += 8) {
+                sbox(q, base);
+                shiftRows(q, base);
+                mixColumns(q, base);
+            }
+            addRoundKey(q, r);
+        }
+        for (int base = 0; base < 16; base += 8) {
+            sbox(q, base);
+            shiftRows(q, base);
+        }
+        addRoundKey(q, rounds);
+    }
+
+    private void decrypt(long[] q) {
+        addRoundKey(q, rounds);
+        for (int r = rounds - 1; r > 0; r--) {
+            for (int base = 0; base < 16; base += 8) {
+                invShiftRows(q, base);
+                invSbox(q, base);
+            }
+            addRoundKey(q, r);
+            for (int base = 0; base < 16; base += 8) {
+                invMixColumns(q, base);
+            }
+        }
+        for (int base = 0; base < 16; base += 8) {
+            invShiftRows(q, base);
+            invSbox(q, base);
+        }
+        addRoundKey(q, 0);
+    }
+
+    private void addRoundKey(long[] q, int round) {
+        int k = round * 8;
+        for (int i = 0; i < 8; i++) {
+            q[i] ^= skey[k + i];
+            q[8 + i] ^= skey[k + i];
+        }
+    }
+
+    /** AES S-box on all 64 bytes of one group as a Boolean circuit (bit planes q[base..base+7]). */
+    static void sbox(long[] q, int base) {
+        long x0 = q[base + 7], x1 = q[base + 6], x2 = q[base + 5], x3 = q[base + 4];
+        long x4 = q[base + 3], x5 = q[base + 2], x6 = q[base + 1], x7 = q[base];
+
+        // Top linear transformation
+        long y14 = x3 ^ x5;
+        long y13 = x0 ^ x6;
+        long y9 = x0 ^ x3;
+        long y8 = x0 ^ x5;
+        long t0 = x1 ^ x2;
+        long y1 = t0 ^ x7;
+        long y4 = y1 ^ x3;
+        long y12 = y13 ^ y14;
+        long y2 = y1 ^ x0;
+        long y5 = y1 ^ x6;
+        long y3 = y5 ^ y8;
+        long t1 = x4 ^ y12;
+        long y15 = t1 ^ x5;
+        long y20 = t1 ^ x1;
+        long y6 = y15 ^ x7;
+        long y10 = y15 ^ t0;
+        long y11 = y20 ^ y9;
+        long y7 = x7 ^ y11;
+        long y17 = y10 ^ y11;
+        long y19 = y10 ^ y8;
+        long y16 = t0 ^ y11;
+        long y21 = y13 ^ y16;
+        long y18 = x0 ^ y16;
+
+        // Non-linear section (inversion in GF(2^8) via GF(2^4))
+        long t2 = y12 & y15;
+        long t3 = y3 & y6;
+        long t4 = t3 ^ t2;
+        long t5 = y4 & x7;
+        long t6 = t5 ^ t2;
+        long t7 = y13 & y16;
+        long t8 = y5 & y1;
+        long t9 = t8 ^ t7;
+        long t10 = y2 & y7;
+        long t11 = t10 ^ t7;
+        long t12 = y9 & y11;
+        long t13 = y14 & y17;
+        long t14 = t13 ^ t12;
+        long t15 = y8 & y10;
+        long t16 = t15 ^ t12;
+        long t17 = t4 ^ t14;
+        long t18 = t6 ^ t16;
+        long t19 = t9 ^ t14;
+        long t20 = t11 ^ t16;
+        long t21 = t17 ^ y20;
+        long t22 = t18 ^ y19;
+        long t23 = t19 ^ y21;
+        long t24 = t20 ^ y18;
+
+        long t25 = t21 ^ t22;
+        long t26 = t21 & t23;
+        long t27 = t24 ^ t26;
+        long t28 = t25 & t27;
+        long t29 = t28 ^ t22;
+        long t30 = t23 ^ t24;
+        long t31 = t22 ^ t26;
+        long t32 = t31 & t30;
+        long t33 = t32 ^ t24;
+        long t34 = t23 ^ t33;
+        long t35 = t27 ^ t33;
+        long t36 = t24 & t35;
+        long t37 = t36 ^ t34;
+        long t38 = t27 ^ t36;
+        long t39 = t29 & t38;
+        long t40 = t25 ^ t39;
+
+        long t41 = t40 ^ t37;
+        long t42 = t29 ^ t33;
+        long t43 = t29 ^ t40;
+        long t44 = t33 ^ t37;
+        long t45 = t42 ^ t41;
+        long z0 = t44 & y15;
+        long z1 = t37 & y6;
+        long z2 = t33 & x7;
+        long z3 = t43 & y16;
+        long z4 = t40 & y1;
+        long z5 = t29 & y7;
+        long z6 = t42 & y11;
+        long z7 = t45 & y17;
+        long z8 = t41 & y10;
+        long z9 = t44 & y12;
+        long z10 = t37 & y3;
+        long z11 = t33 & y4;
+        long z12 = t43 & y13;
+        long z13 = t40 & y5;
+        long z14 = t29 & y2;
+        long z15 = t42 & y9;
+        long z16 = t45 & y14;
+        long z17 = t41 & y8;
+
+        // Bottom linear transformation
+        long t46 = z15 ^ z16;
+        long t47 = z10 ^ z11;
+        long t48 = z5 ^ z13;
+        long t49 = z9 ^ z10;
+        long t50 = z2 ^ z12;
+        long t51 = z2 ^ z5;
+        long t52 = z7 ^ z8;
+        long t53 = z0 ^ z3;
+        long t54 = z6 ^ z7;
+        long t55 = z16 ^ z17;
+        long t56 = z12 ^ t48;
+        long t57 = t50 ^ t53;
+        long t58 = z4 ^ t46;
+        long t59 = z3 ^ t54;
+        long t60 = t46 ^ t57;
+        long t61 = z14 ^ t57;
+        long t62 = t52 ^ t58;
+        long t63 = t49 ^ t58;
+        long t64 = z4 ^ t59;
+        long t65 = t61 ^ t62;
+        long t66 = z1 ^ t63;
+        long s0 = t59 ^ t63;
+        long s6 = t56 ^ ~t62;
+        long s7 = t48 ^ ~t60;
+        long t67 = t64 ^ t65;
+        long s3 = t53 ^ t66;
+        long s4 = t51 ^ t66;
+        long s5 = t47 ^ t65;
+        long s1 = t64 ^ ~s3;
+        long s2 = t55 ^ ~t67;
+
+        q[base + 7] = s0;
+        q[base + 6] = s1;
+        q[base + 5] = s2;
+        q[base + 4] = s3;
+        q[base + 3] = s4;
+        q[base + 2] = s5;
+        q[base + 1] = s6;
+        q[base] = s7;
+    }
+
+    /** Inverse S-box: inverse affine map, forward S-box, inverse affine map. */
+    static void invSbox(long[] q, int base) {
+        invAffine(q, base);
+        sbox(q, base);
+        invAffine(q, base);
+    }
+
+    private static void invAffine(long[] q, int base) {
+        long q0 = ~q[base], q1 = ~q[base + 1], q2 = q[base + 2], q3 = q[base + 3];
+        long q4 = q[base + 4], q5 = ~q[base + 5], q6 = ~q[base + 6], q7 = q[base + 7];
+        q[base + 7] = q1 ^ q4 ^ q6;
+        q[base + 6] = q0 ^ q3 ^ q5;
+        q[base + 5] = q7 ^ q2 ^ q4;
+        q[base + 4] = q6 ^ q1 ^ q3;
+        q[base + 3] = q5 ^ q0 ^ q2;
+        q[base + 2] = q4 ^ q7 ^ q1;
+        q[base + 1] = q3 ^ q6 ^ q0;
+        q[base] = q2 ^ q5 ^ q7;
+    }
+
+    private static void shiftRows(long[] q, int base) {
+        for (int i = base; i < base + 8; i++) {
+            long x = q[i];
+            q[i] = (x & 0x000000000000FFFFL)
+                    | ((x & 0x00000000FFF00000L) >>> 4)
+                    | ((x & 0x00000000000F0000L) << 12)
+                    | ((x & 0x0000FF0000000000L) >>> 8)
+                    | ((x & 0x000000FF00000000L) << 8)
+                    | ((x & 0xF000000000000000L) >>> 12)
+                    | ((x & 0x0FFF000000000000L) << 4);
+        }
+    }
+
+    private static void invShiftRows(long[] q, int base) {
+        for (int i = base; i < base + 8; i++) {
+            long x = q[i];
+            q[i] = (x & 0x000000000000FFFFL)
+                    | ((x & 0x000000000FFF0000L) << 4)
+                    | ((x & 0x00000000F0000000L) >>> 12)
+                    | ((x & 0x000000FF00000000L) << 8)
+                    | ((x & 0x0000FF0000000000L) >>> 8)
+                    | ((x & 0x000F000000000000L) << 12)
+                    | ((x & 0xFFF0000000000000L) >>> 4);
+        }
+    }
+
+    private static void mixColumns(long[] q, int base) {
+        long q0 = q[base], q1 = q[base + 1], q2 = q[base + 2], q3 = q[base + 3];
+        long q4 = q[base + 4], q5 = q[base + 5], q6 = q[base + 6], q7 = q[base + 7];
+        long r0 = Long.rotateRight(q0, 16), r1 = Long.rotateRight(q1, 16);
+        long r2 = Long.rotateRight(q2, 16), r3 = Long.rotateRight(q3, 16);
+        long r4 = Long.rotateRight(q4, 16), r5 = Long.rotateRight(q5, 16);
+        long r6 = Long.rotateRight(q6, 16), r7 = Long.rotateRight(q7, 16);
+
+        q[base] = q7 ^ r7 ^ r0 ^ rotr32(q0 ^ r0);
+        q[base + 1] = q0 ^ r0 ^ q7 ^ r7 ^ r1 ^ rotr32(q1 ^ r1);
+        q[base + 2] = q1 ^ r1 ^ r2 ^ rotr32(q2 ^ r2);
+        q[base + 3] = q2 ^ r2 ^ q7 ^ r7 ^ r3 ^ rotr32(q3 ^ r3);
+        q[base + 4] = q3 ^ r3 ^ q7 ^ r7 ^ r4 ^ rotr32(q4 ^ r4);
+        q[base + 5] = q4 ^ r4 ^ r5 ^ rotr32(q5 ^ r5);
+        q[base + 6] = q5 ^ r5 ^ r6 ^ rotr32(q6 ^ r6);
+        q[base + 7] = q6 ^ r6 ^ r7 ^ rotr32(q7 ^ r7);
+    }
+
+    private static void invMixColumns(long[] q, int base) {
+        long q0 = q[base], q1 = q[base + 1], q2 = q[base + 2], q3 = q[base + 3];
+        long q4 = q[base + 4], q5 = q[base + 5], q6 = q[base + 6], q7 = q[base + 7];
+        long r0 = Long.rotateRight(q0, 16), r1 = Long.rotateRight(q1, 16);
+        long r2 = Long.rotateRight(q2, 16), r3 = Long.rotateRight(q3, 16);
+        long r4 = Long.rotateRight(q4, 16), r5 = Long.rotateRight(q5, 16);
+        long r6 = Long.rotateRight(q6, 16), r7 = Long.rotateRight(q7, 16);
+
+        q[base] = q5 ^ q6 ^ q7 ^ r0 ^ r5 ^ r7 ^ rotr32(q0 ^ q5 ^ q6 ^ r0 ^ r5);
+        q[base + 1] = q0 ^ q5 ^ r0 ^ r1 ^ r5 ^ r6 ^ r7 ^ rotr32(q1 ^ q5 ^ q7 ^ r1 ^ r5 ^ r6);
+        q[base + 2] = q0 ^ q1 ^ q6 ^ r1 ^ r2 ^ r6 ^ r7 ^ rotr32(q0 ^ q2 ^ q6 ^ r2 ^ r6 ^ r7);
+        q[base + 3] = q0 ^ q1 ^ q2 ^ q5 ^ q6 ^ r0 ^ r2 ^ r3 ^ r5
+                ^ rotr32(q0 ^ q1 ^ q3 ^ q5 ^ q6 ^ q7 ^ r0 ^ r3 ^ r5 ^ r7);
+        q[base + 4] = q1 ^ q2 ^ q3 ^ q5 ^ r1 ^ r3 ^ r4 ^ r5 ^ r6 ^ r7
+                ^ rotr32(q1 ^ q2 ^ q4 ^ q5 ^ q7 ^ r1 ^ r4 ^ r5 ^ r6);
+        q[base + 5] = q2 ^ q3 ^ q4 ^ q6 ^ r2 ^ r4 ^ r5 ^ r6 ^ r7
+                ^ rotr32(q2 ^ q3 ^ q5 ^ q6 ^ r2 ^ r5 ^ r6 ^ r7);
+        q[base + 6] = q3 ^ q4 ^ q5 ^ q7 ^ r3 ^ r5 ^ r6 ^ r7 ^ rotr32(q3 ^ q4 ^ q6 ^ q7 ^ r3 ^ r6 ^ r7);
+        q[base + 7] = q4 ^ q5 ^ q6 ^ r4 ^ r6 ^ r7 ^ rotr32(q4 ^ q5 ^ q7 ^ r4 ^ r7);
+    }
+
+    private static long rotr32(long x) {
+        return (x << 32) | (x >>> 32);
+    }
+
+    // ---------- Bit-Plane Transposition ----------
+
+    /** Swaps bit groups between q[a] and q[b] so that bit planes end up in separate words. */
+    private static void ortho(long[] q, int base) {
+        swap(q, base, base + 1, 0x5555555555555555L, 1);
+        swap(q, base + 2, base + 3, 0x5555555555555555L, 1);
+        swap(q, base + 4, base + 5, 0x5555555555555555L, 1);
+        swap(q, base + 6, base + 7, 0x5555555555555555L, 1);
+
+        swap(q, base, base + 2, 0x3333333333333333L, 2);
+        swap(q, base + 1, base + 3, 0x3333333333333333L, 2);
+        swap(q, base + 4, base + 6, 0x3333333333333333L, 2);
+        swap(q, base + 5, base + 7, 0x3333333333333333L, 2);
+
+        swap(q, base, base + 4, 0x0F0F0F0F0F0F0F0FL, 4);
+        swap(q, base + 1, base + 5, 0x0F0F0F0F0F0F0F0FL, 4);
+        swap(q, base + 2, base + 6, 0x0F0F0F0F0F0F0F0FL, 4);
+        swap(q, base + 3, base + 7, 0x0F0F0F0F0F0F0F0FL, 4);
+    }
+
+    private static void swap(long[] q, int i, int j, long cl, int s) {
+        long a = q[i], b = q[j];
+        long ch = ~cl;
+        q[i] = (a & cl) | ((b & cl) << s);
+        q[j] = ((a & ch) >>> s) | (b & ch);
+    }
+
+    /** Spreads the four little-endian words w[off..off+3] of one block over q[i0] and q[i1]. */
+    private static void interleaveIn(long[] q, int i0, int i1, int[] w, int off) {
+        long x0 = spread(w[off]);
+        long x1 = spread(w[off + 1]);
+        long x2 = spread(w[off + 2]);
+        long x3 = spread(w[off + 3]);
+        q[i0] = x0 | (x2 << 8);
+        q[i1] = x1 | (x3 << 8);
+    }
+
+    private static long spread(int word) {
+        long x = word & 0xffffffffL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        return (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+    }
+
+    private static void interleaveOut(int[] w, int off, long q0, long q1) {
+        w[off] = gather(q0 & 0x00FF00FF00FF00FFL);
+        w[off + 1] = gather(q1 & 0x00FF00FF00FF00FFL);
+        w[off + 2] = gather((q0 >>> 8) & 0x00FF00FF00FF00FFL);
+        w[off + 3] = gather((q1 >>> 8) & 0x00FF00FF00FF00FFL);
+    }
+
+    private static int gather(long x) {
+        x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+        return (int) x | (int) (x >>> 16);
+    }
+
+    // ---------- Byte Helpers ----------
+    private static void load(byte[] b, int off, int[] w) {
+        for (int i = 0; i < w.length; i++, off += 4) {
+            w[i] = (b[off] & 0xff) | (b[off + 1] & 0xff) << 8 | (b[off + 2] & 0xff) << 16 | b[off + 3] << 24;
+        }
+    }
+
+    private static void store(int[] w, byte[] b, int off) {
+        for (int i = 0; i < w.length; i++, off += 4) {
+            int v = w[i];
+            b[off] = (byte) v;
+            b[off + 1] = (byte) (v >>> 8);
+            b[off + 2] = (byte) (v >>> 16);
+            b[off + 3] = (byte) (v >>> 24);
+        }
+    }
+
+    // -------------------------------------------------
+    //       DEMO: bitsliced vs. table engine
+    // -------------------------------------------------
+    // Throughput is measured by the JMH module (BulkBenchmark aesBitsliced*).
+    public static void main(String[] args) {
+        // FIPS-197 Appendix C.1, copied into all eight lanes
+        byte[] key = hexStringToByteArray("000102030405060708090a0b0c0d0e0f");
+        byte[] block = hexStringToByteArray("00112233445566778899aabbccddeeff");
+        byte[] data = new byte[PARALLEL_BLOCKS * BLOCK_SIZE];
+        for (int i = 0; i < data.length; i += BLOCK_SIZE) {
+            System.arraycopy(block, 0, data, i, BLOCK_SIZE);
+        }
+
+        AESKey table = new AESKey(key);
+        AESBitsliced bitsliced = new AESBitsliced(table);
+        byte[] tableOut = new byte[BLOCK_SIZE];
+        byte[] slicedOut = new byte[data.length];
+        table.encryptBlock(block, 0, tableOut, 0);
+        bitsliced.encryptBlocks(data, 0, slicedOut, 0, PARALLEL_BLOCKS);
+
+        System.out.println("=== AES-128, FIPS-197 C.1 ===");
+        System.out.println("Table engine:     " + byteArrayToHexString(tableOut));
+        for (int lane = 0; lane < PARALLEL_BLOCKS; lane++) {
+            System.out.println("Bitsliced lane " + lane + ": "
+                    + byteArrayToHexString(Arrays.copyOfRange(slicedOut, lane * BLOCK_SIZE, (lane + 1) * BLOCK_SIZE)));
+        }
+        System.out.println("Expected:         69c4e0d86a7b0430d8cdb78070b4c55a");
+    }
+}
@@ -0,0 +1,195 @@
+package AES;
+
+import util.Xor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static AES.AES.BLOCK_SIZE;
+
+/**
+ * Multi-core AES-CBC decryption and multi-buffer encryption.
+ * <p>
+ * P[i] = D(K, C[i]) XOR C[i-1] (with C[-1] = IV) only reads ciphertext, so the
+ * blocks have no dependency on each other's output. The ciphertext is split into
+ * block ranges that are decrypted on a {@link ForkJoinPool}, each worker writing
+ * straight into one shared, preallocated output buffer.
+ * <p>
+ * Encryption is serial inside a message, but separate messages are not:
+ * {@link #encryptAll} runs four messages side by side through
+ * {@link AESEngine#encryptBlocks4}, so each round's table lookups for one message
+ * overlap with those of the other three.
+ */
+public final class AESCBC {
+
+    /** Inputs at least this large (in bytes) are processed in parallel by default. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+    private static final int LANES = 4;
+
+    private AESCBC() {
+    } // static helpers only
+
+    // ---------- Public API ----------
+
+    /**
+     * Decrypts whole blocks without removing padding.
+     */
+    public static byte[] decrypt(byte[] ciphertext, AESKey key, byte[] iv) {
+        byte[] out = new byte[ciphertext.length];
+        decrypt(ciphertext, 0, ciphertext.length, out, 0, key, iv, DEFAULT_PARALLEL_THRESHOLD);
+        return out;
+    }
+
+    /**
+     * Decrypts {@code len} bytes of {@code in} into {@code out}. Since every block is
+     * XORed with the previous <em>ciphertext</em> block, {@code out} must not
+     * overlap {@code in}.
+     *
+     * @param parallelThreshold inputs of at least this many bytes are split across
+     *                          the common ForkJoinPool; also the size of one work unit
+     */
+    public static void decrypt(byte[] in, int inOff, int len, byte[] out, int outOff,
+                               AESKey key, byte[] iv, int parallelThreshold) {
+        AES.checkIV(iv);
+        if (len % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Ciphertext length must be multiple of block size.");
+        }
+        if (parallelThreshold < BLOCK_SIZE) {
+            throw new IllegalArgumentException("Parallel threshold must be at least one block.");
+        }
+        if (in == out && inOff < outOff + len && outOff < inOff + len) {
+            throw new IllegalArgumentException("CBC decryption cannot run in place.");
+        }
+
+        if (len < parallelThreshold) {
+            decryptRange(key, iv, in, inOff, 0, len, out, outOff);
+        } else {
+            ForkJoinPool.commonPool().invoke(
+                    new CbcTask(key, iv, in, inOff, out, outOff, 0, len, parallelThreshold / BLOCK_SIZE));
+        }
+    }
+
+    /**
+     * Encrypts every message with PKCS#7 padding under its own IV; the result
+     * equals calling {@link AES#encryptCBC(byte[], AESKey, byte[])} per message.
+     * Four messages are in flight at once and a lane takes the next message as
+     * soon as its last block is out, so short and long messages mix freely.
+     */
+    public static byte[][] encryptAll(byte[][] plaintexts, AESKey key, byte[][] ivs) {
+        if (ivs.length != plaintexts.length) {
+            throw new IllegalArgumentException("Need one IV per message.");
+        }
+        for (byte[] iv : ivs) {
+            AES.checkIV(iv);
+        }
+        int[] w = key.encryptionSchedule();
+        byte[][] out = new byte[plaintexts.length][];
+        byte[] idle = new byte[BLOCK_SIZE]; // stands in for lanes with nothing left to do
+        byte[][] lane = new byte[LANES][];  // output array of the message in each lane
+        int[] message = new int[LANES];
+        int[] pos = new int[LANES];
+
+        int next = 0;
+        while (true) {
+            int live = 0;
+            for (int i = 0; i < LANES; i++) {
+                if (lane[i] == null && next < plaintexts.length) {
+                    message[i] = next;
+                    pos[i] = 0;
+                    lane[i] = out[next] = new byte[(plaintexts[next].length / BLOCK_SIZE + 1) * BLOCK_SIZE];
+                    next++;
+                }
+                if (lane[i] == null) {
+                    continue;
+                }
+                live++;
+                // Cipher input P[j] xor C[j-1] (or the IV) goes straight into C[j]'s slot
+                byte[] p = plaintexts[message[i]];
+                byte[] c = lane[i];
+                int at = pos[i];
+                byte[] chain = at == 0 ? ivs[message[i]] : c;
+                int chainOff = at == 0 ? 0 : at - BLOCK_SIZE;
+                int remaining = p.length - at;
+                if (remaining >= BLOCK_SIZE) {
+                    Xor.xor(p, at, chain, chainOff, c, at, BLOCK_SIZE);
+                } else {
+                    // Final block: tail bytes plus PKCS#7 padding, without a padded copy
+                    int padLen = BLOCK_SIZE - remaining;
+                    for (int j = 0; j < BLOCK_SIZE; j++) {
+                        c[at + j] = (byte) ((j < remaining ? p[at + j] : padLen) ^ chain[chainOff + j]);
+                    }
+                }
+            }
+            if (live == 0) {
+                return out;
+            }
+
+            AESEngine.encryptBlocks4InPlace(w,
+                    lane[0] != null ? lane[0] : idle, lane[0] != null ? pos[0] : 0,
+                    lane[1] != null ? lane[1] : idle, lane[1] != null ? pos[1] : 0,
+                    lane[2] != null ? lane[2] : idle, lane[2] != null ? pos[2] : 0,
+                    lane[3] != null ? lane[3] : idle, lane[3] != null ? pos[3] : 0);
+
+            for (int i = 0; i < LANES; i++) {
+                if (lane[i] != null && (pos[i] += BLOCK_SIZE) == lane[i].length) {
+                    lane[i] = null;
+                }
+            }
+        }
+    }
+
+    // ---------- Serial Core ----------
+
+    /**
+     * Decrypts the message bytes [from, to) into the matching positions of out.
+     */
+    static void decryptRange(AESKey key, byte[] iv, byte[] in, int inOff, int from, int to,
+                             byte[] out, int outOff) {
+        for (int pos = from; pos < to; pos += BLOCK_SIZE) {
+            key.decryptBlock(in, inOff + pos, out, outOff + pos);
+
+            // XOR with the neighbouring ciphertext block (or the IV for block 0)
+            byte[] prev = pos == 0 ? iv : in;
+            int prevOff = pos == 0 ? 0 : inOff + pos - BLOCK_SIZE;
+            for (int j = 0; j < BLOCK_SIZE; j++) {
+                out[outOff + pos + j] ^= prev[prevOff + j];
+            }
+        }
+    }
+
+    // ---------- Fork/Join Splitting ----------
+    private static final class CbcTask extends RecursiveAction {
+        private final AESKey key;
+        private final byte[] iv;
+        private final byte[] in, out;
+        private final int inOff, outOff;
+        private final int from, to;         // byte range relative to the message start
+        private final int chunkBlocks;
+
+        CbcTask(AESKey key, byte[] iv, byte[] in, int inOff, byte[] out, int outOff,
+                int from, int to, int chunkBlocks) {
+            this.key = key;
+            this.iv = iv;
+            this.in = in;
+            this.inOff = inOff;
+            this.out = out;
+            this.outOff = outOff;
+            this.from = from;
+            this.to = to;
+            this.chunkBlocks = chunkBlocks;
+        }
+
+        @Override
+        protected void compute() {
+            int blocks = (to - from) / BLOCK_SIZE;
+            if (blocks <= chunkBlocks) {
+                decryptRange(key, iv, in, inOff, from, to, out, outOff);
+                return;
+            }
+            int mid = from + (blocks / 2) * BLOCK_SIZE;
+            invokeAll(new CbcTask(key, iv, in, inOff, out, outOff, from, mid, chunkBlocks),
+                    new CbcTask(key, iv, in, inOff, out, outOff, mid, to, chunkBlocks));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package AES;
+
+import util.Xor;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import static AES.AES.BLOCK_SIZE;
+
+/**
+ * AES-CMAC (RFC 4493 / NIST SP 800-38B) with 128-bit tags.
+ * <p>
+ * The subkeys K1 and K2 are derived once per instance, which can then MAC any
+ * number of messages:
+ * <pre>
+ *   AESCMAC mac = new AESCMAC(key);
+ *   mac.update(chunk, 0, chunk.length);   // repeat per chunk
+ *   byte[] tag = mac.doFinal();           // also resets for the next message
+ * </pre>
+ * A running message costs one chaining block plus one held-back input block,
+ * since the last block is only known to be last once {@code doFinal} is called.
+ * {@link #macAll} tags a batch of short messages four at a time, interleaving
+ * their independent chains through {@link AESEngine#encryptBlocks4}.
+ * Instances are not thread-safe.
+ */
+public final class AESCMAC {
+
+    public static final int TAG_LENGTH = 16;
+
+    private static final int LANES = 4;
+
+    private final int[] schedule;
+    private final byte[] k1 = new byte[BLOCK_SIZE]; // for a complete last block
+    private final byte[] k2 = new byte[BLOCK_SIZE]; // for a padded last block
+
+    // ---------- Per-message state ----------
+    private final byte[] state = new byte[BLOCK_SIZE];
+    private final byte[] pending = new byte[BLOCK_SIZE];
+    private int pendingLen;
+
+    public AESCMAC(AESKey key) {
+        this.schedule = key.encryptionSchedule();
+        // L = E(K, 0^128), K1 = L * x, K2 = K1 * x
+        byte[] l = new byte[BLOCK_SIZE];
+        AESEngine.encryptBlock(schedule, l, 0, l, 0);
+        doubleBlock(l, k1);
+        doubleBlock(k1, k2);
+    }
+
+    // ---------- One-Shot Helpers ----------
+
+    public static byte[] mac(AESKey key, byte[] message) {
+        AESCMAC cmac = new AESCMAC(key);
+        cmac.update(message, 0, message.length);
+        return cmac.doFinal();
+    }
+
+    /** Compares in constant time; {@code tag} may be truncated, but not below 8 bytes. */
+    public static boolean verify(AESKey key, byte[] message, byte[] tag) {
+        if (tag.length < 8 || tag.length > TAG_LENGTH) {
+            throw new IllegalArgumentException("CMAC tag must be 8 to 16 bytes.");
+        }
+        byte[] expected = mac(key, message);
+        return MessageDigest.isEqual(Arrays.copyOf(expected, tag.length), tag);
+    }
+
+    // ---------- Incremental API ----------
+
+    public void update(byte[] in, int inOff, int len) {
+        if (len == 0) {
+            return;
+        }
+        // Top up the held-back block; it is only absorbed once more input follows it
+        int fill = Math.min(BLOCK_SIZE - pendingLen, len);
+        System.arraycopy(in, inOff, pending, pendingLen, fill);
+        pendingLen += fill;
+        inOff += fill;
+        len -= fill;
+        if (len == 0) {
+            return;
+        }
+
+        absorb(pending, 0);
+        // Full blocks straight from the input, keeping the final one (or partial tail) back
+        while (len > BLOCK_SIZE) {
+            absorb(in, inOff);
+            inOff += BLOCK_SIZE;
+            len -= BLOCK_SIZE;
+        }
+        System.arraycopy(in, inOff, pending, 0, len);
+        pendingLen = len;
+    }
+
+    /** Returns the tag and resets for the next message under the same key. */
+    public byte[] doFinal() {
+        byte[] tag = new byte[TAG_LENGTH];
+        doFinal(tag, 0);
+        return tag;
+    }
+
+    public int doFinal(byte[] out, int outOff) {
+        lastBlock(pending, 0, pendingLen, state, 0);
+        AESEngine.encryptBlock(schedule, state, 0, out, outOff);
+        reset();
+        return TAG_LENGTH;
+    }
+
+    /** Discards the message in progress. */
+    public void reset() {
+        Arrays.fill(state, (byte) 0);
+        Arrays.fill(pending, (byte) 0);
+        pendingLen = 0;
+    }
+
+    // ---------- Bulk Mode ----------
+
+    /**
+     * Tags every message under this key. Four messages are in flight at once:
+     * each step XORs the next block of every live message into its own lane
+     * and encrypts all four lanes in one interleaved call, and a lane is refilled
+     * with the next message as soon as its tag is out. Does not touch the
+     * incremental state.
+     */
+    public byte[][] macAll(byte[][] messages) {
+        byte[][] tags = new byte[messages.length][];
+        byte[] lanes = new byte[LANES * BLOCK_SIZE];
+        int[] message = new int[LANES];
+        int[] pos = new int[LANES];
+        boolean[] last = new boolean[LANES];
+        Arrays.fill(message, -1);
+
+        int next = 0;
+        while (true) {
+            int live = 0;
+            for (int i = 0; i < LANES; i++) {
+                if (message[i] < 0 && next < messages.length) {
+                    message[i] = next++;
+                    pos[i] = 0;
+                    Arrays.fill(lanes, i * BLOCK_SIZE, (i + 1) * BLOCK_SIZE, (byte) 0);
+                }
+                if (message[i] < 0) {
+                    continue;
+                }
+                live++;
+                byte[] m = messages[message[i]];
+                int remaining = m.length - pos[i];
+                last[i] = remaining <= BLOCK_SIZE;
+                if (last[i]) {
+                    lastBlock(m, pos[i], remaining, lanes, i * BLOCK_SIZE);
+                } else {
+                    Xor.xor(lanes, i * BLOCK_SIZE, m, pos[i], lanes, i * BLOCK_SIZE, BLOCK_SIZE);
+                    pos[i] += BLOCK_SIZE;
+                }
+            }
+            if (live == 0) {
+                return tags;
+            }
+
+            // Idle lanes are encrypted too; their contents are never read
+            AESEngine.encryptBlocks4(schedule, lanes, 0, lanes, 0);
+
+            for (int i = 0; i < LANES; i++) {
+                if (message[i] >= 0 && last[i]) {
+                    tags[message[i]] = Arrays.copyOfRange(lanes, i * BLOCK_SIZE, (i + 1) * BLOCK_SIZE);
+                    message[i] = -1;
+                }
+            }
+        }
+    }
+
+    // ---------- Internals ----------
+
+    // state = E(K, state XOR block)
+    private void absorb(byte[] in, int inOff) {
+        Xor.xor(state, 0, in, inOff, state, 0, BLOCK_SIZE);
+        AESEngine.encryptBlock(schedule, state, 0, state, 0);
+    }
+
+    /**
+     * XORs the final block into {@code acc}: M XOR K1 if it is complete,
+     * otherwise (M || 10..0) XOR K2. The caller then encrypts {@code acc}.
+     */
+    private void lastBlock(byte[] in, int inOff, int len, byte[] acc, int accOff) {
+        byte[] subkey = len == BLOCK_SIZE ? k1 : k2;
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            int b = i < len ? in[inOff + i] : (i == len ? 0x80 : 0);
+            acc[accOff + i] ^= (byte) (b ^ subkey[i]);
+        }
+    }
+
+    /** out = in * x in GF(2^128), big-endian bit order (the CMAC subkey doubling). */
+    static void doubleBlock(byte[] in, byte[] out) {
+        int carry = (in[0] >> 7) & 1;
+        for (int i = 0; i < BLOCK_SIZE - 1; i++) {
+            out[i] = (byte) ((in[i] << 1) | ((in[i + 1] & 0xff) >>> 7));
+        }
+        out[BLOCK_SIZE - 1] = (byte) ((in[BLOCK_SIZE - 1] << 1) ^ (-carry & 0x87));
+    }
+}
@@ -0,0 +1,148 @@
+package AES;
+
+import util.Xor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static AES.AES.BLOCK_SIZE;
+
+/**
+ * AES in counter mode (NIST SP 800-38A).
+ * <p>
+ * The 16-byte IV is the initial counter block; block i of the message is XORed
+ * with E(K, IV + i), where the addition is a 128-bit big-endian increment. Since
+ * every block only depends on its own counter, large inputs are split into
+ * independent counter ranges and processed on a {@link ForkJoinPool}. Encryption
+ * and decryption are the same operation, and the result does not depend on how
+ * the input was split.
+ */
+public final class AESCTR {
+
+    /** Inputs at least this large (in bytes) are processed in parallel by default. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+    /** Keystream bytes generated per batch; a multiple of four blocks. */
+    private static final int TILE = 16 * BLOCK_SIZE;
+
+    private AESCTR() {
+    } // static helpers only
+
+    // ---------- Public API ----------
+    public static byte[] crypt(byte[] input, AESKey key, byte[] iv) {
+        return crypt(input, key, iv, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param parallelThreshold inputs of at least this many bytes are split across
+     *                          the common ForkJoinPool; also the size of one work unit
+     */
+    public static byte[] crypt(byte[] input, AESKey key, byte[] iv, int parallelThreshold) {
+        byte[] out = new byte[input.length];
+        crypt(input, 0, input.length, out, 0, key, iv, parallelThreshold);
+        return out;
+    }
+
+    /**
+     * Encrypts/decrypts {@code len} bytes of {@code in} into {@code out}. The two
+     * ranges may be the same array region (in-place), but must not partially overlap.
+     */
+    public static void crypt(byte[] in, int inOff, int len, byte[] out, int outOff,
+                             AESKey key, byte[] iv, int parallelThreshold) {
+        AES.checkIV(iv);
+        if (parallelThreshold < BLOCK_SIZE) {
+            throw new IllegalArgumentException("Parallel threshold must be at least one block.");
+        }
+        long ivHi = getLong(iv, 0);
+        long ivLo = getLong(iv, 8);
+
+        if (len < parallelThreshold) {
+            cryptRange(key, ivHi, ivLo, 0, in, inOff, len, out, outOff);
+        } else {
+            int chunkBlocks = parallelThreshold / BLOCK_SIZE;
+            ForkJoinPool.commonPool().invoke(
+                    new CtrTask(key, ivHi, ivLo, in, inOff, out, outOff, 0, len, chunkBlocks));
+        }
+    }
+
+    // ---------- Serial Core ----------
+
+    /**
+     * Processes {@code len} bytes starting at counter {@code IV + firstBlock}.
+     * Keystream is produced a tile at a time, four counter blocks per
+     * {@link AESEngine#encryptBlocks4} call, and XORed in with {@link Xor}.
+     */
+    static void cryptRange(AESKey key, long ivHi, long ivLo, long firstBlock,
+                           byte[] in, int inOff, int len, byte[] out, int outOff) {
+        int[] w = key.encryptionSchedule();
+        byte[] counters = new byte[TILE];
+        byte[] keystream = new byte[TILE];
+
+        long lo = ivLo + firstBlock;
+        long hi = ivHi + (Long.compareUnsigned(lo, ivLo) < 0 ? 1 : 0);
+
+        for (int pos = 0; pos < len; pos += TILE) {
+            int n = Math.min(TILE, len - pos);
+            for (int i = 0; i < n; i += 4 * BLOCK_SIZE) {
+                for (int b = i; b < i + 4 * BLOCK_SIZE; b += BLOCK_SIZE) {
+                    putLong(counters, b, hi);
+                    putLong(counters, b + 8, lo);
+                    // 128-bit increment
+                    if (++lo == 0) {
+                        hi++;
+                    }
+                }
+                AESEngine.encryptBlocks4(w, counters, i, keystream, i);
+            }
+            Xor.xor(in, inOff + pos, keystream, 0, out, outOff + pos, n);
+        }
+    }
+
+    // ---------- Fork/Join Splitting ----------
+    private static final class CtrTask extends RecursiveAction {
+        private final AESKey key;
+        private final long ivHi, ivLo;
+        private final byte[] in, out;
+        private final int inOff, outOff;
+        private final int from, to;         // byte range relative to the message start
+        private final int chunkBlocks;
+
+        CtrTask(AESKey key, long ivHi, long ivLo, byte[] in, int inOff, byte[] out, int outOff,
+                int from, int to, int chunkBlocks) {
+            this.key = key;
+            this.ivHi = ivHi;
+            this.ivLo = ivLo;
+            this.in = in;
+            this.inOff = inOff;
+            this.out = out;
+            this.outOff = outOff;
+            this.from = from;
+            this.to = to;
+            this.chunkBlocks = chunkBlocks;
+        }
+
+        @Override
+        protected void compute() {
+            int blocks = (to - from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            if (blocks <= chunkBlocks) {
+                cryptRange(key, ivHi, ivLo, from / BLOCK_SIZE,
+                        in, inOff + from, to - from, out, outOff + from);
+                return;
+            }
+            // Split on a block boundary so each half starts at a whole counter value
+            int mid = from + (blocks / 2) * BLOCK_SIZE;
+            invokeAll(new CtrTask(key, ivHi, ivLo, in, inOff, out, outOff, from, mid, chunkBlocks),
+                    new CtrTask(key, ivHi, ivLo, in, inOff, out, outOff, mid, to, chunkBlocks));
+        }
+    }
+
+    // ---------- Byte Helpers ----------
+    static long getLong(byte[] b, int off) {
+        return ((long) AESEngine.getInt(b, off) << 32) | (AESEngine.getInt(b, off + 4) & 0xffffffffL);
+    }
+
+    static void putLong(byte[] b, int off, long v) {
+        AESEngine.putInt(b, off, (int) (v >>> 32));
+        AESEngine.putInt(b, off + 4, (int) v);
+    }
+}
@@ -0,0 +1,62 @@
+package AES;
+
+import util.BlockCipher;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import static AES.AES.BLOCK_SIZE;
+
+/**
+ * {@link BlockCipher} view of an {@link AESKey} in one direction.
+ * <p>
+ * Array blocks go straight through the word engine. Buffers without an
+ * accessible array (direct or mapped) are staged through one 16-byte scratch
+ * block owned by the instance, so steady-state processing allocates nothing.
+ */
+public final class AESCipher implements BlockCipher {
+
+    private final int[] schedule;
+    private final boolean forEncryption;
+    private final byte[] scratch = new byte[BLOCK_SIZE];
+
+    public AESCipher(AESKey key, boolean forEncryption) {
+        this.schedule = forEncryption ? key.encryptionSchedule() : key.decryptionSchedule();
+        this.forEncryption = forEncryption;
+    }
+
+    @Override
+    public int getBlockSize() {
+        return BLOCK_SIZE;
+    }
+
+    @Override
+    public void processBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        if (forEncryption) {
+            AESEngine.encryptBlock(schedule, in, inOff, out, outOff);
+        } else {
+            AESEngine.decryptBlock(schedule, in, inOff, out, outOff);
+        }
+    }
+
+    @Override
+    public void processBlock(ByteBuffer in, ByteBuffer out) {
+        if (in.remaining() < BLOCK_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        if (out.remaining() < BLOCK_SIZE) {
+            throw new BufferOverflowException();
+        }
+        if (in.hasArray() && out.hasArray()) {
+            processBlock(in.array(), in.arrayOffset() + in.position(),
+                    out.array(), out.arrayOffset() + out.position());
+            in.position(in.position() + BLOCK_SIZE);
+            out.position(out.position() + BLOCK_SIZE);
+            return;
+        }
+        in.get(scratch);
+        processBlock(scratch, 0, scratch, 0);
+        out.put(scratch);
+    }
+}
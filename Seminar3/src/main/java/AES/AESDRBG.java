@@ -0,0 +1,213 @@
+package AES;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.SecureRandomSpi;
+import java.util.Arrays;
+
+import static AES.AES.BLOCK_SIZE;
+import static AES.AESCTR.getLong;
+import static AES.AESCTR.putLong;
+
+/**
+ * CTR_DRBG (NIST SP 800-90A, section 10.2) on AES-256, without a derivation
+ * function and without prediction resistance.
+ * <p>
+ * The generator is seeded with 48 bytes from the system {@link SecureRandom} and
+ * goes back to it only to reseed, every {@link #DEFAULT_RESEED_INTERVAL}
+ * requests. Everything in between is plain AES-CTR on private state, so
+ * per-thread instances never touch the shared system RNG:
+ * <pre>
+ *   SaltedHasher hasher = new SaltedHasher(16, AESDRBG.current());
+ * </pre>
+ * A request fills the caller's array directly: the counter blocks are written
+ * into it and encrypted in place four at a time through
+ * {@link AESEngine#encryptBlocks4}, with at most 64 KiB per request as the
+ * standard requires. Larger {@code nextBytes} calls are split into several
+ * requests.
+ * <p>
+ * Instances are not thread-safe on their own; the {@link SecureRandom} wrappers
+ * returned by {@link #newSecureRandom()} and {@link #current()} serialize calls.
+ */
+public final class AESDRBG extends SecureRandomSpi {
+
+    /** Generate requests between two reseeds from the system RNG. */
+    public static final int DEFAULT_RESEED_INTERVAL = 1 << 16;
+
+    /** Largest single request (2^19 bits). */
+    static final int MAX_REQUEST = 1 << 16;
+
+    private static final int KEY_LEN = 32;
+    private static final int SEED_LEN = KEY_LEN + BLOCK_SIZE;
+
+    private static final SecureRandom SYSTEM = new SecureRandom();
+
+    private static final ThreadLocal<SecureRandom> PER_THREAD =
+            ThreadLocal.withInitial(AESDRBG::newSecureRandom);
+
+    private final SecureRandom entropy;
+    private final int reseedInterval;
+
+    // ---------- Working state ----------
+    private int[] key;          // expanded K
+    private long vHi, vLo;      // V, a 128-bit counter
+    private int requests;       // generate calls since the last (re)seed
+
+    public AESDRBG() {
+        this(SYSTEM, DEFAULT_RESEED_INTERVAL);
+    }
+
+    /**
+     * @param entropy        source of the 48-byte seeds
+     * @param reseedInterval requests served before reseeding from {@code entropy}
+     */
+    public AESDRBG(SecureRandom entropy, int reseedInterval) {
+        if (reseedInterval < 1) {
+            throw new IllegalArgumentException("Reseed interval must be at least 1.");
+        }
+        this.entropy = entropy;
+        this.reseedInterval = reseedInterval;
+        instantiate(seed());
+    }
+
+    // ---------- Factories ----------
+
+    /** A {@link SecureRandom} backed by a freshly seeded generator. */
+    public static SecureRandom newSecureRandom() {
+        return new DrbgSecureRandom(new AESDRBG());
+    }
+
+    /** This thread's own generator, created on first use. */
+    public static SecureRandom current() {
+        return PER_THREAD.get();
+    }
+
+    // ---------- SecureRandomSpi ----------
+
+    /**
+     * Reseeds with fresh system entropy combined with {@code seed}, which is
+     * first condensed to 48 bytes with SHA-384. Never replaces the entropy.
+     */
+    @Override
+    protected void engineSetSeed(byte[] seed) {
+        reseed(seed(), sha384(seed));
+    }
+
+    @Override
+    protected void engineNextBytes(byte[] bytes) {
+        for (int off = 0; off < bytes.length; off += MAX_REQUEST) {
+            generate(bytes, off, Math.min(MAX_REQUEST, bytes.length - off));
+        }
+    }
+
+    @Override
+    protected byte[] engineGenerateSeed(int numBytes) {
+        return entropy.generateSeed(numBytes);
+    }
+
+    // ---------- SP 800-90A Functions ----------
+
+    private void instantiate(byte[] entropyInput) {
+        key = AESEngine.expandKey(new byte[KEY_LEN]);
+        vHi = 0;
+        vLo = 0;
+        reseed(entropyInput, null);
+    }
+
+    /** seed_material = entropy_input XOR additional_input (both 48 bytes), then Update. */
+    private void reseed(byte[] entropyInput, byte[] additional) {
+        if (additional != null) {
+            for (int i = 0; i < SEED_LEN; i++) {
+                entropyInput[i] ^= additional[i];
+            }
+        }
+        update(entropyInput);
+        Arrays.fill(entropyInput, (byte) 0);
+        requests = 0;
+    }
+
+    /** Writes {@code len} (at most {@link #MAX_REQUEST}) bytes of output. */
+    private void generate(byte[] out, int off, int len) {
+        if (requests >= reseedInterval) {
+            reseed(seed(), null);
+        }
+        int full = len & -BLOCK_SIZE;
+        int pos = 0;
+        // Counter blocks written straight into the output and encrypted in place
+        for (; pos + 4 * BLOCK_SIZE <= full; pos += 4 * BLOCK_SIZE) {
+            for (int b = pos; b < pos + 4 * BLOCK_SIZE; b += BLOCK_SIZE) {
+                nextCounter(out, off + b);
+            }
+            AESEngine.encryptBlocks4(key, out, off + pos, out, off + pos);
+        }
+        for (; pos < full; pos += BLOCK_SIZE) {
+            nextCounter(out, off + pos);
+            AESEngine.encryptBlock(key, out, off + pos, out, off + pos);
+        }
+        if (pos < len) {
+            byte[] block = new byte[BLOCK_SIZE];
+            nextCounter(block, 0);
+            AESEngine.encryptBlock(key, block, 0, block, 0);
+            System.arraycopy(block, 0, out, off + pos, len - pos);
+            Arrays.fill(block, (byte) 0);
+        }
+        // Backtracking resistance: move to a new K and V before returning
+        update(null);
+        requests++;
+    }
+
+    /** CTR_DRBG_Update: (K, V) = leftmost 384 bits of E(K, V+1..V+3) XOR provided. */
+    private void update(byte[] provided) {
+        byte[] temp = new byte[4 * BLOCK_SIZE];
+        for (int b = 0; b < 4 * BLOCK_SIZE; b += BLOCK_SIZE) {
+            nextCounter(temp, b);
+        }
+        AESEngine.encryptBlocks4(key, temp, 0, temp, 0); // the fourth block is discarded
+        if (provided != null) {
+            for (int i = 0; i < SEED_LEN; i++) {
+                temp[i] ^= provided[i];
+            }
+        }
+        Arrays.fill(key, 0);
+        key = AESEngine.expandKey(Arrays.copyOf(temp, KEY_LEN));
+        vHi = getLong(temp, KEY_LEN);
+        vLo = getLong(temp, KEY_LEN + 8);
+        Arrays.fill(temp, (byte) 0);
+    }
+
+    // V = V + 1 (mod 2^128), written out as the next counter block
+    private void nextCounter(byte[] out, int off) {
+        if (++vLo == 0) {
+            vHi++;
+        }
+        putLong(out, off, vHi);
+        putLong(out, off + 8, vLo);
+    }
+
+    private byte[] seed() {
+        byte[] s = new byte[SEED_LEN];
+        entropy.nextBytes(s);
+        return s;
+    }
+
+    private static byte[] sha384(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-384").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-384 algorithm not present", e);
+        }
+    }
+
+    // SecureRandom's SPI constructor is protected, hence the subclass
+    private static final class DrbgSecureRandom extends SecureRandom {
+        DrbgSecureRandom(AESDRBG spi) {
+            super(spi, null);
+        }
+
+        @Override
+        public String getAlgorithm() {
+            return "AES-256-CTR-DRBG";
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package AES;
+
+import static AES.AES128.*;
+
+/**
+ * Word-oriented AES core shared by AES-128, AES-192 and AES-256.
+ * <p>
+ * The state is kept in four big-endian column words (s0..s3) instead of a
+ * {@code byte[4][4]} matrix, and SubBytes + ShiftRows + MixColumns are folded
+ * into four 256-entry lookup tables (Te0..Te3). Decryption uses the matching
+ * Td0..Td3 tables with the equivalent inverse cipher, so it costs the same as
+ * encryption (see {@link #inverseKey}). The round keys are the plain {@code int[]} schedules produced
+ * by {@link AES128#expandKey}, {@link AES192#expandKey192} and
+ * {@link AES256#expandKey256}, so results are identical to the detailed methods.
+ */
+public final class AESEngine {
+
+    private AESEngine() {
+    } // static helpers only
+
+    // ------------------------ Lookup Tables ------------------------
+    // Te0[x] = (2*S[x], S[x], S[x], 3*S[x]); Te1..Te3 are byte rotations of Te0.
+    static final int[] TE0 = new int[256];
+    static final int[] TE1 = new int[256];
+    static final int[] TE2 = new int[256];
+    static final int[] TE3 = new int[256];
+
+    // Td0[x] = (14*Si[x], 9*Si[x], 13*Si[x], 11*Si[x]); Td1..Td3 are rotations.
+    static final int[] TD0 = new int[256];
+    static final int[] TD1 = new int[256];
+    static final int[] TD2 = new int[256];
+    static final int[] TD3 = new int[256];
+
+    // IMC0[x] = (14*x, 9*x, 13*x, 11*x): InvMixColumns of a single byte, used on round keys.
+    static final int[] IMC0 = new int[256];
+    static final int[] IMC1 = new int[256];
+    static final int[] IMC2 = new int[256];
+    static final int[] IMC3 = new int[256];
+
+    static {
+        for (int x = 0; x < 256; x++) {
+            int s = SBOX[x];
+            int te = (gmul(s, 2) << 24) | (s << 16) | (s << 8) | gmul(s, 3);
+            TE0[x] = te;
+            TE1[x] = Integer.rotateRight(te, 8);
+            TE2[x] = Integer.rotateRight(te, 16);
+            TE3[x] = Integer.rotateRight(te, 24);
+
+            int imc = (gmul(x, 14) << 24) | (gmul(x, 9) << 16) | (gmul(x, 13) << 8) | gmul(x, 11);
+            IMC0[x] = imc;
+            IMC1[x] = Integer.rotateRight(imc, 8);
+            IMC2[x] = Integer.rotateRight(imc, 16);
+            IMC3[x] = Integer.rotateRight(imc, 24);
+
+            int si = INV_SBOX[x];
+            int td = (gmul(si, 14) << 24) | (gmul(si, 9) << 16) | (gmul(si, 13) << 8) | gmul(si, 11);
+            TD0[x] = td;
+            TD1[x] = Integer.rotateRight(td, 8);
+            TD2[x] = Integer.rotateRight(td, 16);
+            TD3[x] = Integer.rotateRight(td, 24);
+        }
+    }
+
+    // ---------- Key Expansion (any key size) ----------
+    public static int[] expandKey(byte[] key) {
+        return switch (key.length) {
+            case 16 -> AES128.expandKey(key);
+            case 24 -> AES192.expandKey192(key);
+            case 32 -> AES256.expandKey256(key);
+            default -> throw new IllegalArgumentException("Unsupported key size.");
+        };
+    }
+
+    /** Number of rounds (10, 12 or 14) for an expanded schedule. */
+    public static int rounds(int[] w) {
+        return w.length / 4 - 1;
+    }
+
+    /** InvMixColumns applied to one round-key word. */
+    static int invMixColumn(int word) {
+        return IMC0[word >>> 24] ^ IMC1[(word >>> 16) & 0xff]
+                ^ IMC2[(word >>> 8) & 0xff] ^ IMC3[word & 0xff];
+    }
+
+    // ---------- Single-Block Encryption ----------
+    public static void encryptBlock(int[] w, byte[] in, int inOff, byte[] out, int outOff) {
+        int nr = rounds(w);
+
+        int s0 = getInt(in, inOff) ^ w[0];
+        int s1 = getInt(in, inOff + 4) ^ w[1];
+        int s2 = getInt(in, inOff + 8) ^ w[2];
+        int s3 = getInt(in, inOff + 12) ^ w[3];
+
+        int k = 4;
+        for (int round = 1; round < nr; round++) {
+            int t0 = TE0[s0 >>> 24] ^ TE1[(s1 >>> 16) & 0xff] ^ TE2[(s2 >>> 8) & 0xff] ^ TE3[s3 & 0xff] ^ w[k];
+            int t1 = TE0[s1 >>> 24] ^ TE1[(s2 >>> 16) & 0xff] ^ TE2[(s3 >>> 8) & 0xff] ^ TE3[s0 & 0xff] ^ w[k + 1];
+            int t2 = TE0[s2 >>> 24] ^ TE1[(s3 >>> 16) & 0xff] ^ TE2[(s0 >>> 8) & 0xff] ^ TE3[s1 & 0xff] ^ w[k + 2];
+            int t3 = TE0[s3 >>> 24] ^ TE1[(s0 >>> 16) & 0xff] ^ TE2[(s1 >>> 8) & 0xff] ^ TE3[s2 & 0xff] ^ w[k + 3];
+            s0 = t0;
+            s1 = t1;
+            s2 = t2;
+            s3 = t3;
+            k += 4;
+        }
+
+        // Final round: SubBytes + ShiftRows + AddRoundKey (no MixColumns)
+        putInt(out, outOff, finalSub(s0, s1, s2, s3) ^ w[k]);
+        putInt(out, outOff + 4, finalSub(s1, s2, s3, s0) ^ w[k + 1]);
+        putInt(out, outOff + 8, finalSub(s2, s3, s0, s1) ^ w[k + 2]);
+        putInt(out, outOff + 12, finalSub(s3, s0, s1, s2) ^ w[k + 3]);
+    }
+
+    /**
+     * Encrypts four consecutive blocks with their rounds interleaved. The four
+     * states are independent, so the table lookups of one block overlap with
+     * those of the others instead of waiting on the previous round.
+     */
+    public static void encryptBlocks4(int[] w, byte[] in, int inOff, byte[] out, int outOff) {
+        encrypt4(w, in, inOff, in, inOff + 16, in, inOff + 32, in, inOff + 48,
+                out, outOff, out, outOff + 16, out, outOff + 32, out, outOff + 48);
+    }
+
+    /**
+     * Same as {@link #encryptBlocks4(int[], byte[], int, byte[], int)}, but for four
+     * blocks that live in different places (e.g. one per message), each encrypted
+     * in place.
+     */
+    public static void encryptBlocks4InPlace(int[] w, byte[] a, int aOff, byte[] b, int bOff,
+                                             byte[] c, int cOff, byte[] d, int dOff) {
+        encrypt4(w, a, aOff, b, bOff, c, cOff, d, dOff, a, aOff, b, bOff, c, cOff, d, dOff);
+    }
+
+    private static void encrypt4(int[] w, byte[] inA, int inAOff, byte[] inB, int inBOff,
+                                 byte[] inC, int inCOff, byte[] inD, int inDOff,
+                                 byte[] outA, int outAOff, byte[] outB, int outBOff,
+                                 byte[] outC, int outCOff, byte[] outD, int outDOff) {
+        int nr = rounds(w);
+
+        int a0 = getInt(inA, inAOff) ^ w[0], a1 = getInt(inA, inAOff + 4) ^ w[1];
+        int a2 = getInt(inA, inAOff + 8) ^ w[2], a3 = getInt(inA, inAOff + 12) ^ w[3];
+        int b0 = getInt(inB, inBOff) ^ w[0], b1 = getInt(inB, inBOff + 4) ^ w[1];
+        int b2 = getInt(inB, inBOff + 8) ^ w[2], b3 = getInt(inB, inBOff + 12) ^ w[3];
+        int c0 = getInt(inC, inCOff) ^ w[0], c1 = getInt(inC, inCOff + 4) ^ w[1];
+        int c2 = getInt(inC, inCOff + 8) ^ w[2], c3 = getInt(inC, inCOff + 12) ^ w[3];
+        int d0 = getInt(inD, inDOff) ^ w[0], d1 = getInt(inD, inDOff + 4) ^ w[1];
+        int d2 = getInt(inD, inDOff + 8) ^ w[2], d3 = getInt(inD, inDOff + 12) ^ w[3];
+
+        int k = 4;
+        for (int round = 1; round < nr; round++) {
+            int k0 = w[k], k1 = w[k + 1], k2 = w[k + 2], k3 = w[k + 3];
+            int ta0 = te(a0, a1, a2, a3) ^ k0, ta1 = te(a1, a2, a3, a0) ^ k1;
+            int ta2 = te(a2, a3, a0, a1) ^ k2, ta3 = te(a3, a0, a1, a2) ^ k3;
+            int tb0 = te(b0, b1, b2, b3) ^ k0, tb1 = te(b1, b2, b3, b0) ^ k1;
+            int tb2 = te(b2, b3, b0, b1) ^ k2, tb3 = te(b3, b0, b1, b2) ^ k3;
+            int tc0 = te(c0, c1, c2, c3) ^ k0, tc1 = te(c1, c2, c3, c0) ^ k1;
+            int tc2 = te(c2, c3, c0, c1) ^ k2, tc3 = te(c3, c0, c1, c2) ^ k3;
+            int td0 = te(d0, d1, d2, d3) ^ k0, td1 = te(d1, d2, d3, d0) ^ k1;
+            int td2 = te(d2, d3, d0, d1) ^ k2, td3 = te(d3, d0, d1, d2) ^ k3;
+            a0 = ta0; a1 = ta1; a2 = ta2; a3 = ta3;
+            b0 = tb0; b1 = tb1; b2 = tb2; b3 = tb3;
+            c0 = tc0; c1 = tc1; c2 = tc2; c3 = tc3;
+            d0 = td0; d1 = td1; d2 = td2; d3 = td3;
+            k += 4;
+        }
+
+        finalRound(w, k, a0, a1, a2, a3, outA, outAOff);
+        finalRound(w, k, b0, b1, b2, b3, outB, outBOff);
+        finalRound(w, k, c0, c1, c2, c3, outC, outCOff);
+        finalRound(w, k, d0, d1, d2, d3, outD, outDOff);
+    }
+
+    // One output column of a full round: SubBytes + ShiftRows + MixColumns
+    private static int te(int s0, int s1, int s2, int s3) {
+        return TE0[s0 >>> 24] ^ TE1[(s1 >>> 16) & 0xff] ^ TE2[(s2 >>> 8) & 0xff] ^ TE3[s3 & 0xff];
+    }
+
+    private static void finalRound(int[] w, int k, int s0, int s1, int s2, int s3, byte[] out, int outOff) {
+        putInt(out, outOff, finalSub(s0, s1, s2, s3) ^ w[k]);
+        putInt(out, outOff + 4, finalSub(s1, s2, s3, s0) ^ w[k + 1]);
+        putInt(out, outOff + 8, finalSub(s2, s3, s0, s1) ^ w[k + 2]);
+        putInt(out, outOff + 12, finalSub(s3, s0, s1, s2) ^ w[k + 3]);
+    }
+
+    /**
+     * Builds the decryption schedule of the FIPS-197 equivalent inverse cipher
+     * (section 5.3.5): the round keys in reverse round order, with InvMixColumns
+     * applied once here to every key except the first and last. That way
+     * {@link #decryptBlock(int[], byte[], int, byte[], int)} walks it forwards
+     * with the same table-lookup-plus-XOR rounds as encryption.
+     */
+    public static int[] inverseKey(int[] w) {
+        int nr = rounds(w);
+        int[] dk = new int[w.length];
+        for (int round = 0; round <= nr; round++) {
+            int src = 4 * (nr - round);
+            for (int i = 0; i < 4; i++) {
+                int word = w[src + i];
+                dk[4 * round + i] = (round == 0 || round == nr) ? word : invMixColumn(word);
+            }
+        }
+        return dk;
+    }
+
+    // ---------- Single-Block Decryption ----------
+    // Each Td round computes InvMixColumns(InvSubBytes(InvShiftRows(state))); the
+    // round keys in dk (from inverseKey(...)) already went through InvMixColumns.
+    public static void decryptBlock(int[] dk, byte[] in, int inOff, byte[] out, int outOff) {
+        int nr = rounds(dk);
+
+        int s0 = getInt(in, inOff) ^ dk[0];
+        int s1 = getInt(in, inOff + 4) ^ dk[1];
+        int s2 = getInt(in, inOff + 8) ^ dk[2];
+        int s3 = getInt(in, inOff + 12) ^ dk[3];
+
+        int k = 4;
+        for (int round = 1; round < nr; round++) {
+            int t0 = TD0[s0 >>> 24] ^ TD1[(s3 >>> 16) & 0xff] ^ TD2[(s2 >>> 8) & 0xff] ^ TD3[s1 & 0xff] ^ dk[k];
+            int t1 = TD0[s1 >>> 24] ^ TD1[(s0 >>> 16) & 0xff] ^ TD2[(s3 >>> 8) & 0xff] ^ TD3[s2 & 0xff] ^ dk[k + 1];
+            int t2 = TD0[s2 >>> 24] ^ TD1[(s1 >>> 16) & 0xff] ^ TD2[(s0 >>> 8) & 0xff] ^ TD3[s3 & 0xff] ^ dk[k + 2];
+            int t3 = TD0[s3 >>> 24] ^ TD1[(s2 >>> 16) & 0xff] ^ TD2[(s1 >>> 8) & 0xff] ^ TD3[s0 & 0xff] ^ dk[k + 3];
+            s0 = t0;
+            s1 = t1;
+            s2 = t2;
+            s3 = t3;
+            k += 4;
+        }
+
+        // Final round: InvShiftRows + InvSubBytes + AddRoundKey(0)
+        putInt(out, outOff, finalInvSub(s0, s3, s2, s1) ^ dk[k]);
+        putInt(out, outOff + 4, finalInvSub(s1, s0, s3, s2) ^ dk[k + 1]);
+        putInt(out, outOff + 8, finalInvSub(s2, s1, s0, s3) ^ dk[k + 2]);
+        putInt(out, outOff + 12, finalInvSub(s3, s2, s1, s0) ^ dk[k + 3]);
+    }
+
+    // ---------- Convenience (same contract as encryptBlockDetailed*) ----------
+    public static byte[] encryptBlock(byte[] plaintext, byte[] key) {
+        byte[] out = new byte[16];
+        encryptBlock(expandKey(key), plaintext, 0, out, 0);
+        return out;
+    }
+
+    public static byte[] decryptBlock(byte[] ciphertext, byte[] key) {
+        byte[] out = new byte[16];
+        decryptBlock(inverseKey(expandKey(key)), ciphertext, 0, out, 0);
+        return out;
+    }
+
+    // ---------- Word Helpers ----------
+    private static int finalSub(int a, int b, int c, int d) {
+        return (SBOX[a >>> 24] << 24)
+                | (SBOX[(b >>> 16) & 0xff] << 16)
+                | (SBOX[(c >>> 8) & 0xff] << 8)
+                | SBOX[d & 0xff];
+    }
+
+    private static int finalInvSub(int a, int b, int c, int d) {
+        return (INV_SBOX[a >>> 24] << 24)
+                | (INV_SBOX[(b >>> 16) & 0xff] << 16)
+                | (INV_SBOX[(c >>> 8) & 0xff] << 8)
+                | INV_SBOX[d & 0xff];
+    }
+
+    static int getInt(byte[] b, int off) {
+        return ((b[off] & 0xff) << 24)
+                | ((b[off + 1] & 0xff) << 16)
+                | ((b[off + 2] & 0xff) << 8)
+                | (b[off + 3] & 0xff);
+    }
+
+    static void putInt(byte[] b, int off, int v) {
+        b[off] = (byte) (v >>> 24);
+        b[off + 1] = (byte) (v >>> 16);
+        b[off + 2] = (byte) (v >>> 8);
+        b[off + 3] = (byte) v;
+    }
+
+    // ---------- MAIN (Test) ----------
+    public static void main(String[] args) {
+        System.out.println("=== AES Word Engine Demo (FIPS-197 Appendix C vectors) ===\n");
+
+        byte[] plaintext = hexStringToByteArray("00112233445566778899aabbccddeeff");
+        String[] keys = {
+                "000102030405060708090a0b0c0d0e0f",
+                "000102030405060708090a0b0c0d0e0f1011121314151617",
+                "000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f"
+        };
+
+        for (String keyHex : keys) {
+            byte[] key = hexStringToByteArray(keyHex);
+            byte[] encrypted = encryptBlock(plaintext, key);
+            byte[] recovered = decryptBlock(encrypted, key);
+            System.out.println("AES-" + key.length * 8);
+            System.out.println("  Ciphertext (hex): " + byteArrayToHexString(encrypted));
+            System.out.println("  Recovered  (hex): " + byteArrayToHexString(recovered));
+        }
+    }
+}
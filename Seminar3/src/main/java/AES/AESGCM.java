@@ -0,0 +1,387 @@
+package AES;
+
+import javax.crypto.AEADBadTagException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static AES.AES.BLOCK_SIZE;
+
+/**
+ * AES in Galois/Counter Mode (NIST SP 800-38D) with 128-bit tags.
+ * <p>
+ * One instance holds the hash subkey H = E(K, 0^128) and its GHASH table, and can
+ * run any number of messages under that key:
+ * <pre>
+ *   AESGCM gcm = new AESGCM(key);
+ *   gcm.init(true, iv);
+ *   gcm.updateAAD(header, 0, header.length);
+ *   int n = gcm.update(chunk, 0, chunk.length, out, 0);   // repeat per chunk
+ *   n += gcm.doFinal(out, n);                              // flushes the tail
+ *   byte[] tag = gcm.getTag();
+ * </pre>
+ * Runs of at least {@link #DEFAULT_PARALLEL_THRESHOLD} bytes are cut into chunks
+ * that are encrypted and hashed on a {@link ForkJoinPool}; each chunk hashes its
+ * own blocks from zero and the partial hashes are then combined with
+ * Y = Y * H^(chunk blocks) XOR Y_chunk, so GHASH does not serialize the message.
+ * Instances are not thread-safe.
+ */
+public final class AESGCM {
+
+    public static final int TAG_LENGTH = 16;
+
+    /** Runs of at least this many bytes are encrypted and hashed in parallel. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+    private final AESKey key;
+    private final GHASH ghash;
+    private final long hHi, hLo;
+    private final int chunkBlocks;
+    private final long[] chunkPower; // H^chunkBlocks, used to combine full chunks
+
+    // ---------- Per-message state ----------
+    private boolean forEncryption;
+    private boolean initialized;
+    private boolean dataStarted;
+    private final byte[] j0 = new byte[BLOCK_SIZE];
+    private final long[] y = new long[2];         // running GHASH value
+    private final byte[] pending = new byte[BLOCK_SIZE];
+    private int pendingLen;                        // buffered AAD or data bytes
+    private long aadLen, dataLen;                  // in bytes
+    private int counter;                           // low 32 bits of the next counter block
+    private byte[] tag;
+
+    public AESGCM(AESKey key) {
+        this(key, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param parallelThreshold runs of at least this many bytes are split across
+     *                          the common ForkJoinPool; also the size of one chunk
+     */
+    public AESGCM(AESKey key, int parallelThreshold) {
+        if (parallelThreshold < BLOCK_SIZE) {
+            throw new IllegalArgumentException("Parallel threshold must be at least one block.");
+        }
+        this.key = key;
+        byte[] h = new byte[BLOCK_SIZE];
+        key.encryptBlock(h, 0, h, 0);
+        this.hHi = AESCTR.getLong(h, 0);
+        this.hLo = AESCTR.getLong(h, 8);
+        this.ghash = new GHASH(hHi, hLo);
+        this.chunkBlocks = parallelThreshold / BLOCK_SIZE;
+        this.chunkPower = GHASH.power(hHi, hLo, chunkBlocks);
+    }
+
+    // ---------- One-Shot Helpers ----------
+
+    /** Returns ciphertext || tag. */
+    public static byte[] encrypt(AESKey key, byte[] iv, byte[] aad, byte[] plaintext) {
+        AESGCM gcm = new AESGCM(key);
+        gcm.init(true, iv);
+        if (aad != null) {
+            gcm.updateAAD(aad, 0, aad.length);
+        }
+        byte[] out = new byte[plaintext.length + TAG_LENGTH];
+        int n = gcm.update(plaintext, 0, plaintext.length, out, 0);
+        n += gcm.doFinal(out, n);
+        System.arraycopy(gcm.getTag(), 0, out, n, TAG_LENGTH);
+        return out;
+    }
+
+    /** Takes ciphertext || tag and returns the plaintext if the tag verifies. */
+    public static byte[] decrypt(AESKey key, byte[] iv, byte[] aad, byte[] ciphertextAndTag)
+            throws AEADBadTagException {
+        if (ciphertextAndTag.length < TAG_LENGTH) {
+            throw new AEADBadTagException("Input shorter than the tag.");
+        }
+        int ctLen = ciphertextAndTag.length - TAG_LENGTH;
+        AESGCM gcm = new AESGCM(key);
+        gcm.init(false, iv);
+        if (aad != null) {
+            gcm.updateAAD(aad, 0, aad.length);
+        }
+        byte[] out = new byte[ctLen];
+        int n = gcm.update(ciphertextAndTag, 0, ctLen, out, 0);
+        gcm.doFinal(out, n);
+        gcm.verify(ciphertextAndTag, ctLen);
+        return out;
+    }
+
+    // ---------- Streaming API ----------
+
+    /**
+     * Starts a new message. A 12-byte IV is used directly; any other length is
+     * hashed into the pre-counter block as the standard requires. Never reuse an
+     * IV under the same key.
+     */
+    public void init(boolean forEncryption, byte[] iv) {
+        if (iv == null || iv.length == 0) {
+            throw new IllegalArgumentException("IV must not be empty.");
+        }
+        this.forEncryption = forEncryption;
+        if (iv.length == 12) {
+            System.arraycopy(iv, 0, j0, 0, 12);
+            AESEngine.putInt(j0, 12, 1);
+        } else {
+            long[] s = new long[2];
+            int full = iv.length / BLOCK_SIZE;
+            ghash.update(s, iv, 0, full);
+            byte[] last = new byte[BLOCK_SIZE];
+            System.arraycopy(iv, full * BLOCK_SIZE, last, 0, iv.length % BLOCK_SIZE);
+            if (iv.length % BLOCK_SIZE != 0) {
+                ghash.update(s, last, 0, 1);
+            }
+            s[1] ^= (long) iv.length * 8;
+            ghash.multiplyH(s);
+            AESCTR.putLong(j0, 0, s[0]);
+            AESCTR.putLong(j0, 8, s[1]);
+        }
+        counter = AESEngine.getInt(j0, 12) + 1;
+        y[0] = 0;
+        y[1] = 0;
+        pendingLen = 0;
+        aadLen = 0;
+        dataLen = 0;
+        dataStarted = false;
+        tag = null;
+        initialized = true;
+    }
+
+    /** Adds associated data; must come before any call to {@link #update}. */
+    public void updateAAD(byte[] aad, int off, int len) {
+        checkInitialized();
+        if (dataStarted) {
+            throw new IllegalStateException("AAD must be supplied before the message data.");
+        }
+        aadLen += len;
+        if (pendingLen > 0) {
+            int n = Math.min(len, BLOCK_SIZE - pendingLen);
+            System.arraycopy(aad, off, pending, pendingLen, n);
+            pendingLen += n;
+            off += n;
+            len -= n;
+            if (pendingLen < BLOCK_SIZE) {
+                return;
+            }
+            ghash.update(y, pending, 0, 1);
+            pendingLen = 0;
+        }
+        int blocks = len / BLOCK_SIZE;
+        ghash.update(y, aad, off, blocks);
+        pendingLen = len - blocks * BLOCK_SIZE;
+        System.arraycopy(aad, off + blocks * BLOCK_SIZE, pending, 0, pendingLen);
+    }
+
+    /**
+     * Encrypts or decrypts message bytes. Output is produced a whole block at a
+     * time; up to 15 trailing bytes are held back until the next call or
+     * {@link #doFinal}. Returns the number of bytes written to {@code out}, which
+     * must not overlap {@code in}. When decrypting, output must not be trusted before {@link #verify} succeeds.
+     */
+    public int update(byte[] in, int off, int len, byte[] out, int outOff) {
+        checkInitialized();
+        startData();
+        dataLen += len;
+        int written = 0;
+
+        if (pendingLen > 0) {
+            int n = Math.min(len, BLOCK_SIZE - pendingLen);
+            System.arraycopy(in, off, pending, pendingLen, n);
+            pendingLen += n;
+            off += n;
+            len -= n;
+            if (pendingLen < BLOCK_SIZE) {
+                return 0;
+            }
+            processBlocks(pending, 0, 1, out, outOff);
+            pendingLen = 0;
+            written = BLOCK_SIZE;
+        }
+
+        int blocks = len / BLOCK_SIZE;
+        processBlocks(in, off, blocks, out, outOff + written);
+        written += blocks * BLOCK_SIZE;
+
+        pendingLen = len - blocks * BLOCK_SIZE;
+        System.arraycopy(in, off + blocks * BLOCK_SIZE, pending, 0, pendingLen);
+        return written;
+    }
+
+    /**
+     * Flushes the buffered tail and computes the tag; returns the number of tail
+     * bytes written to {@code out}. Call {@link #getTag()} (encryption) or
+     * {@link #verify} (decryption) afterwards.
+     */
+    public int doFinal(byte[] out, int outOff) {
+        checkInitialized();
+        startData();
+        int tail = pendingLen;
+        if (tail > 0) {
+            byte[] keystream = new byte[BLOCK_SIZE];
+            counterBlock(counter, keystream);
+            key.encryptBlock(keystream, 0, keystream, 0);
+            if (!forEncryption) {
+                hashPartial(pending, tail);
+            }
+            for (int j = 0; j < tail; j++) {
+                out[outOff + j] = (byte) (pending[j] ^ keystream[j]);
+            }
+            if (forEncryption) {
+                hashPartial(out, outOff, tail);
+            }
+        }
+
+        // Length block: [len(A)]_64 || [len(C)]_64 in bits
+        y[0] ^= aadLen * 8;
+        y[1] ^= dataLen * 8;
+        ghash.multiplyH(y);
+
+        tag = new byte[TAG_LENGTH];
+        key.encryptBlock(j0, 0, tag, 0);
+        for (int j = 0; j < 8; j++) {
+            tag[j] ^= (byte) (y[0] >>> (56 - 8 * j));
+            tag[8 + j] ^= (byte) (y[1] >>> (56 - 8 * j));
+        }
+        initialized = false;
+        return tail;
+    }
+
+    /** The tag computed by the last {@link #doFinal}. */
+    public byte[] getTag() {
+        if (tag == null) {
+            throw new IllegalStateException("doFinal has not been called.");
+        }
+        return tag.clone();
+    }
+
+    /** Compares the computed tag in constant time with {@code expected[off..off+16)}. */
+    public void verify(byte[] expected, int off) throws AEADBadTagException {
+        byte[] computed = getTag();
+        byte[] received = new byte[TAG_LENGTH];
+        System.arraycopy(expected, off, received, 0, TAG_LENGTH);
+        if (!MessageDigest.isEqual(computed, received)) {
+            throw new AEADBadTagException("Tag mismatch.");
+        }
+    }
+
+    // ---------- Internals ----------
+    private void checkInitialized() {
+        if (!initialized) {
+            throw new IllegalStateException("Call init(...) first.");
+        }
+    }
+
+    // Pads the AAD to a block boundary the first time message data arrives
+    private void startData() {
+        if (!dataStarted) {
+            if (pendingLen > 0) {
+                hashPartial(pending, pendingLen);
+                pendingLen = 0;
+            }
+            dataStarted = true;
+        }
+    }
+
+    private void hashPartial(byte[] buf, int len) {
+        hashPartial(buf, 0, len);
+    }
+
+    private void hashPartial(byte[] buf, int off, int len) {
+        byte[] block = new byte[BLOCK_SIZE];
+        System.arraycopy(buf, off, block, 0, len);
+        ghash.update(y, block, 0, 1);
+    }
+
+    private void counterBlock(int ctr, byte[] dst) {
+        System.arraycopy(j0, 0, dst, 0, 12);
+        AESEngine.putInt(dst, 12, ctr);
+    }
+
+    private void processBlocks(byte[] in, int off, int blocks, byte[] out, int outOff) {
+        if (blocks == 0) {
+            return;
+        }
+        if (blocks <= chunkBlocks) {
+            cryptChunk(in, off, blocks, out, outOff, counter, y);
+        } else {
+            List<ChunkTask> tasks = new ArrayList<>();
+            for (int b = 0; b < blocks; b += chunkBlocks) {
+                int n = Math.min(chunkBlocks, blocks - b);
+                tasks.add(new ChunkTask(in, off + b * BLOCK_SIZE, n, out, outOff + b * BLOCK_SIZE,
+                        counter + b));
+            }
+            ForkJoinPool.commonPool().invoke(new CombineTask(tasks));
+
+            // Horner over the chunk hashes: Y = Y * H^n_j XOR Z_j
+            for (ChunkTask t : tasks) {
+                long[] hn = t.blocks == chunkBlocks ? chunkPower : GHASH.power(hHi, hLo, t.blocks);
+                GHASH.multiply(y, hn[0], hn[1]);
+                y[0] ^= t.z[0];
+                y[1] ^= t.z[1];
+            }
+        }
+        counter += blocks;
+    }
+
+    /**
+     * Runs GCTR over {@code blocks} whole blocks starting at counter {@code ctr} and
+     * folds the chunk's ciphertext into the GHASH value z.
+     */
+    private void cryptChunk(byte[] in, int off, int blocks, byte[] out, int outOff, int ctr, long[] z) {
+        byte[] cb = new byte[BLOCK_SIZE];
+        byte[] ks = new byte[BLOCK_SIZE];
+        for (int i = 0; i < blocks; i++) {
+            int p = off + i * BLOCK_SIZE;
+            int q = outOff + i * BLOCK_SIZE;
+            if (!forEncryption) {
+                ghash.update(z, in, p, 1);
+            }
+            counterBlock(ctr + i, cb);
+            key.encryptBlock(cb, 0, ks, 0);
+            for (int j = 0; j < BLOCK_SIZE; j++) {
+                out[q + j] = (byte) (in[p + j] ^ ks[j]);
+            }
+            if (forEncryption) {
+                ghash.update(z, out, q, 1);
+            }
+        }
+    }
+
+    // ---------- Fork/Join Tasks ----------
+    private final class ChunkTask extends RecursiveAction {
+        private final byte[] in, out;
+        private final int off, outOff, ctr;
+        final int blocks;
+        final long[] z = new long[2];
+
+        ChunkTask(byte[] in, int off, int blocks, byte[] out, int outOff, int ctr) {
+            this.in = in;
+            this.off = off;
+            this.blocks = blocks;
+            this.out = out;
+            this.outOff = outOff;
+            this.ctr = ctr;
+        }
+
+        @Override
+        protected void compute() {
+            cryptChunk(in, off, blocks, out, outOff, ctr, z); // z starts from zero
+        }
+    }
+
+    private static final class CombineTask extends RecursiveAction {
+        private final List<ChunkTask> tasks;
+
+        CombineTask(List<ChunkTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+}
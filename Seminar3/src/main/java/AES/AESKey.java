@@ -0,0 +1,86 @@
+package AES;
+
+import util.KeyScheduleCache;
+
+import javax.security.auth.Destroyable;
+import java.util.Arrays;
+
+import static AES.AES128.hexStringToByteArray;
+
+/**
+ * Expanded AES key (128, 192 or 256 bits).
+ * <p>
+ * The forward and inverse round-key schedules are built once in the constructor
+ * and reused for every block of a message instead of re-running the key
+ * expansion per block. The key is safe to share between threads until it is
+ * destroyed: {@link #destroy()} zeroes both schedules, including under any
+ * thread still using them, so call it only once every user is done.
+ */
+public final class AESKey implements Destroyable {
+
+    private final int[] encKey; // forward schedule, round 0..Nr
+    private final int[] decKey; // inverse schedule, round Nr..0
+    private volatile boolean destroyed;
+
+    /**
+     * @param key raw key bytes; 16, 24 or 32 bytes long
+     */
+    public AESKey(byte[] key) {
+        this.encKey = AESEngine.expandKey(key);
+        this.decKey = AESEngine.inverseKey(encKey);
+    }
+
+    /** Convenience: builds a key from a hex string (32, 48 or 64 hex digits). */
+    public static AESKey fromHex(String keyHex) {
+        return new AESKey(hexStringToByteArray(keyHex));
+    }
+
+    /**
+     * Bounded cache of expanded keys for workloads with many keys, e.g.
+     * {@code cache.withKey(raw, k -> AES.encryptCTR(data, k, iv))}.
+     */
+    public static KeyScheduleCache<AESKey> cache(int maxEntries) {
+        return new KeyScheduleCache<>(maxEntries, AESKey::new);
+    }
+
+    /** Number of rounds: 10, 12 or 14. */
+    public int rounds() {
+        return AESEngine.rounds(encKey);
+    }
+
+    /** Key size in bits: 128, 192 or 256. */
+    public int keySize() {
+        return 32 * (rounds() - 6);
+    }
+
+    // ---------- Block Operations ----------
+    public void encryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        AESEngine.encryptBlock(encKey, in, inOff, out, outOff);
+    }
+
+    public void decryptBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        AESEngine.decryptBlock(decKey, in, inOff, out, outOff);
+    }
+
+    /** Wipes both round-key schedules; the key must not be used afterwards. */
+    @Override
+    public void destroy() {
+        Arrays.fill(encKey, 0);
+        Arrays.fill(decKey, 0);
+        destroyed = true;
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    // Schedules are handed to the engines in this package only; never exposed.
+    int[] encryptionSchedule() {
+        return encKey;
+    }
+
+    int[] decryptionSchedule() {
+        return decKey;
+    }
+}
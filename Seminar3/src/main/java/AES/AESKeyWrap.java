@@ -0,0 +1,259 @@
+package AES;
+
+import javax.crypto.AEADBadTagException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static AES.AES.BLOCK_SIZE;
+import static AES.AESCTR.getLong;
+import static AES.AESCTR.putLong;
+
+/**
+ * AES Key Wrap (RFC 3394) and Key Wrap with Padding (RFC 5649).
+ * <p>
+ * The key-encryption key is an {@link AESKey}, so its schedule is expanded once
+ * and reused for every key it wraps; with many master keys, keep them in an
+ * {@link AESKey#cache}. Wrapping runs in place in the output array with one
+ * 16-byte work block, so a call allocates only its result. {@link #wrapAll}
+ * and {@link #unwrapAll} split large batches of keys across a {@link ForkJoinPool}.
+ */
+public final class AESKeyWrap {
+
+    /** Batches of at least this many keys are processed in parallel. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+
+    private static final int SEMIBLOCK = 8;
+    private static final long DEFAULT_IV = 0xA6A6A6A6A6A6A6A6L; // RFC 3394
+    private static final int PADDED_IV = 0xA65959A6;            // RFC 5649 (high half)
+
+    private AESKeyWrap() {
+    } // static helpers only
+
+    // ---------- Single Keys ----------
+
+    /** RFC 3394: {@code key} must be a multiple of 8 bytes and at least 16 bytes. */
+    public static byte[] wrap(AESKey kek, byte[] key) {
+        if (key.length < 2 * SEMIBLOCK || key.length % SEMIBLOCK != 0) {
+            throw new IllegalArgumentException("Key to wrap must be a multiple of 8 bytes and at least 16 bytes.");
+        }
+        return wrap(kek, key, DEFAULT_IV, key.length, new byte[BLOCK_SIZE]);
+    }
+
+    public static byte[] unwrap(AESKey kek, byte[] wrapped) throws AEADBadTagException {
+        checkWrapped(wrapped, 3 * SEMIBLOCK);
+        byte[] key = unwrap(kek, wrapped, false, new byte[BLOCK_SIZE]);
+        if (key == null) {
+            throw new AEADBadTagException("Integrity check failed.");
+        }
+        return key;
+    }
+
+    /** RFC 5649: any non-empty key length. */
+    public static byte[] wrapPad(AESKey kek, byte[] key) {
+        if (key.length == 0) {
+            throw new IllegalArgumentException("Key to wrap must not be empty.");
+        }
+        long iv = ((long) PADDED_IV << 32) | key.length;
+        int padded = (key.length + SEMIBLOCK - 1) / SEMIBLOCK * SEMIBLOCK;
+        return wrap(kek, key, iv, padded, new byte[BLOCK_SIZE]);
+    }
+
+    public static byte[] unwrapPad(AESKey kek, byte[] wrapped) throws AEADBadTagException {
+        checkWrapped(wrapped, 2 * SEMIBLOCK);
+        byte[] key = unwrap(kek, wrapped, true, new byte[BLOCK_SIZE]);
+        if (key == null) {
+            throw new AEADBadTagException("Integrity check failed.");
+        }
+        return key;
+    }
+
+    // ---------- Batches ----------
+
+    /**
+     * Wraps every key under {@code kek}, with padding (RFC 5649) or without
+     * (RFC 3394). Batches of {@link #DEFAULT_PARALLEL_THRESHOLD} keys or more
+     * are split across the common ForkJoinPool.
+     */
+    public static byte[][] wrapAll(AESKey kek, byte[][] keys, boolean pad) {
+        for (byte[] key : keys) {
+            if (pad ? key.length == 0 : key.length < 2 * SEMIBLOCK || key.length % SEMIBLOCK != 0) {
+                throw new IllegalArgumentException("Key to wrap has an invalid length.");
+            }
+        }
+        byte[][] out = new byte[keys.length][];
+        runBatch(new BatchTask(kek, keys, out, true, pad, 0, keys.length, null));
+        return out;
+    }
+
+    /**
+     * Unwraps every key under {@code kek}. If any fails its integrity check, all
+     * recovered keys are wiped and the lowest failing index is reported.
+     */
+    public static byte[][] unwrapAll(AESKey kek, byte[][] wrapped, boolean pad) throws AEADBadTagException {
+        for (byte[] w : wrapped) {
+            checkWrapped(w, pad ? 2 * SEMIBLOCK : 3 * SEMIBLOCK);
+        }
+        byte[][] out = new byte[wrapped.length][];
+        AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+        runBatch(new BatchTask(kek, wrapped, out, false, pad, 0, wrapped.length, firstFailure));
+
+        int failed = firstFailure.get();
+        if (failed != Integer.MAX_VALUE) {
+            for (byte[] key : out) {
+                if (key != null) {
+                    Arrays.fill(key, (byte) 0);
+                }
+            }
+            throw new AEADBadTagException("Integrity check failed for key " + failed + ".");
+        }
+        return out;
+    }
+
+    private static void runBatch(BatchTask task) {
+        if (task.to - task.from < DEFAULT_PARALLEL_THRESHOLD) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+    }
+
+    // ---------- Core ----------
+
+    /**
+     * W(S) from RFC 3394 section 2.2.1, written straight into the result:
+     * A sits in the first semiblock, R[1..n] (the key, zero padded to
+     * {@code paddedLen}) after it.
+     */
+    private static byte[] wrap(AESKey kek, byte[] key, long iv, int paddedLen, byte[] block) {
+        int[] w = kek.encryptionSchedule();
+        byte[] out = new byte[SEMIBLOCK + paddedLen];
+        System.arraycopy(key, 0, out, SEMIBLOCK, key.length);
+        int n = paddedLen / SEMIBLOCK;
+
+        if (n == 1) {
+            // RFC 5649: a single padded semiblock is one plain ECB block
+            putLong(out, 0, iv);
+            AESEngine.encryptBlock(w, out, 0, out, 0);
+            return out;
+        }
+
+        long a = iv;
+        for (int j = 0; j < 6; j++) {
+            for (int i = 1; i <= n; i++) {
+                putLong(block, 0, a);
+                System.arraycopy(out, i * SEMIBLOCK, block, SEMIBLOCK, SEMIBLOCK);
+                AESEngine.encryptBlock(w, block, 0, block, 0);
+                a = getLong(block, 0) ^ ((long) n * j + i);
+                System.arraycopy(block, SEMIBLOCK, out, i * SEMIBLOCK, SEMIBLOCK);
+            }
+        }
+        putLong(out, 0, a);
+        Arrays.fill(block, (byte) 0);
+        return out;
+    }
+
+    /** Returns the recovered key, or null if the integrity check fails. */
+    private static byte[] unwrap(AESKey kek, byte[] wrapped, boolean pad, byte[] block) {
+        int[] dk = kek.decryptionSchedule();
+        byte[] r = wrapped.clone(); // A in the first semiblock, R[1..n] after it
+        int n = r.length / SEMIBLOCK - 1;
+        long a;
+
+        if (n == 1) {
+            AESEngine.decryptBlock(dk, r, 0, r, 0);
+            a = getLong(r, 0);
+        } else {
+            a = getLong(r, 0);
+            for (int j = 5; j >= 0; j--) {
+                for (int i = n; i >= 1; i--) {
+                    putLong(block, 0, a ^ ((long) n * j + i));
+                    System.arraycopy(r, i * SEMIBLOCK, block, SEMIBLOCK, SEMIBLOCK);
+                    AESEngine.decryptBlock(dk, block, 0, block, 0);
+                    a = getLong(block, 0);
+                    System.arraycopy(block, SEMIBLOCK, r, i * SEMIBLOCK, SEMIBLOCK);
+                }
+            }
+            Arrays.fill(block, (byte) 0);
+        }
+
+        int keyLen = n * SEMIBLOCK;
+        boolean ok;
+        if (!pad) {
+            ok = a == DEFAULT_IV;
+        } else {
+            // AIV || MLI, with 0 < MLI <= 8n and MLI covering all but < 8 zero pad bytes
+            int mli = (int) a;
+            ok = (int) (a >>> 32) == PADDED_IV && mli > keyLen - SEMIBLOCK && mli <= keyLen;
+            if (ok) {
+                int nonZero = 0;
+                for (int i = SEMIBLOCK + mli; i < r.length; i++) {
+                    nonZero |= r[i];
+                }
+                ok = nonZero == 0;
+                keyLen = mli;
+            }
+        }
+        if (!ok) {
+            Arrays.fill(r, (byte) 0);
+            return null;
+        }
+        byte[] key = Arrays.copyOfRange(r, SEMIBLOCK, SEMIBLOCK + keyLen);
+        Arrays.fill(r, (byte) 0);
+        return key;
+    }
+
+    private static void checkWrapped(byte[] wrapped, int min) {
+        if (wrapped.length < min || wrapped.length % SEMIBLOCK != 0) {
+            throw new IllegalArgumentException("Wrapped key must be a multiple of 8 bytes and at least "
+                    + min + " bytes.");
+        }
+    }
+
+    // ---------- Fork/Join Splitting ----------
+    private static final class BatchTask extends RecursiveAction {
+        private static final int CHUNK = 64; // keys per leaf task
+
+        private final AESKey kek;
+        private final byte[][] in, out;
+        private final boolean wrap, pad;
+        private final int from, to;
+        private final AtomicInteger firstFailure; // unwrap only
+
+        BatchTask(AESKey kek, byte[][] in, byte[][] out, boolean wrap, boolean pad,
+                  int from, int to, AtomicInteger firstFailure) {
+            this.kek = kek;
+            this.in = in;
+            this.out = out;
+            this.wrap = wrap;
+            this.pad = pad;
+            this.from = from;
+            this.to = to;
+            this.firstFailure = firstFailure;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK && inForkJoinPool()) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(kek, in, out, wrap, pad, from, mid, firstFailure),
+                        new BatchTask(kek, in, out, wrap, pad, mid, to, firstFailure));
+                return;
+            }
+            byte[] block = new byte[BLOCK_SIZE]; // shared by the whole leaf
+            for (int i = from; i < to; i++) {
+                if (wrap) {
+                    long iv = pad ? ((long) PADDED_IV << 32) | in[i].length : DEFAULT_IV;
+                    int padded = (in[i].length + SEMIBLOCK - 1) / SEMIBLOCK * SEMIBLOCK;
+                    out[i] = AESKeyWrap.wrap(kek, in[i], iv, padded, block);
+                } else {
+                    out[i] = unwrap(kek, in[i], pad, block);
+                    if (out[i] == null) {
+                        firstFailure.accumulateAndGet(i, Math::min);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package AES;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static AES.AES.BLOCK_SIZE;
+
+/**
+ * Whole-file AES that works directly between memory-mapped windows of the input
+ * and output files ({@link FileChannel#map}).
+ * <p>
+ * Data is read from the input mapping and written to the output mapping eight
+ * bytes at a time. Only the 16-byte cipher blocks (and, for CTR, a small
+ * keystream tile) pass through the heap, so there is no kernel-to-heap buffer
+ * copy as in the stream path.
+ * <ul>
+ *   <li><b>CTR</b> keeps the file length; each window is split across cores.</li>
+ *   <li><b>CBC</b> appends PKCS#7 padding. Encryption is serial by nature;
+ *       decryption of each window is split across cores.</li>
+ * </ul>
+ */
+public final class AESMappedFile {
+
+    public enum Mode { CTR, CBC }
+
+    /** Bytes mapped per window; a multiple of the block size. */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /** Bytes handled by one fork/join leaf task. */
+    private static final int GRAIN = 64 * 1024;
+
+    /** Keystream bytes generated per batch in CTR mode. */
+    private static final int TILE = 4 * 1024;
+
+    private AESMappedFile() {
+    } // static helpers only
+
+    public static long encrypt(Path in, Path out, AESKey key, Mode mode, byte[] iv) throws IOException {
+        return process(in, out, key, mode, iv, true, DEFAULT_WINDOW_SIZE);
+    }
+
+    public static long decrypt(Path in, Path out, AESKey key, Mode mode, byte[] iv) throws IOException {
+        return process(in, out, key, mode, iv, false, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize bytes mapped at a time (multiple of 16)
+     * @return the size of the output file
+     */
+    public static long process(Path in, Path out, AESKey key, Mode mode, byte[] iv, boolean encrypt,
+                               int windowSize) throws IOException {
+        AES.checkIV(iv);
+        if (windowSize < BLOCK_SIZE || windowSize % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Window size must be a positive multiple of " + BLOCK_SIZE + ".");
+        }
+
+        try (FileChannel src = FileChannel.open(in, StandardOpenOption.READ);
+             FileChannel dst = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long len = src.size();
+            if (mode == Mode.CTR) {
+                return ctr(src, dst, len, key, iv, windowSize);
+            }
+            return encrypt
+                    ? cbcEncrypt(src, dst, len, key, iv, windowSize)
+                    : cbcDecrypt(src, dst, len, key, iv, windowSize);
+        }
+    }
+
+    // ---------- CTR ----------
+    private static long ctr(FileChannel src, FileChannel dst, long len, AESKey key, byte[] iv, int window)
+            throws IOException {
+        long ivHi = AESCTR.getLong(iv, 0);
+        long ivLo = AESCTR.getLong(iv, 8);
+
+        for (long pos = 0; pos < len; pos += window) {
+            int n = (int) Math.min(window, len - pos);
+            MappedByteBuffer inMap = src.map(FileChannel.MapMode.READ_ONLY, pos, n);
+            MappedByteBuffer outMap = dst.map(FileChannel.MapMode.READ_WRITE, pos, n);
+            long windowBlock = pos / BLOCK_SIZE;
+
+            forEachRange(n, (from, to) ->
+                    ctrRange(key, ivHi, ivLo, windowBlock + from / BLOCK_SIZE, inMap, outMap, from, to));
+        }
+        return len;
+    }
+
+    private static void ctrRange(AESKey key, long ivHi, long ivLo, long firstBlock,
+                                 MappedByteBuffer inMap, MappedByteBuffer outMap, int from, int to) {
+        int[] w = key.encryptionSchedule();
+        byte[] counters = new byte[TILE];
+        byte[] ks = new byte[TILE];
+        long lo = ivLo + firstBlock;
+        long hi = ivHi + (Long.compareUnsigned(lo, ivLo) < 0 ? 1 : 0);
+
+        for (int pos = from; pos < to; pos += TILE) {
+            int n = Math.min(TILE, to - pos);
+            for (int i = 0; i < n; i += 4 * BLOCK_SIZE) {
+                for (int b = i; b < i + 4 * BLOCK_SIZE; b += BLOCK_SIZE) {
+                    AESCTR.putLong(counters, b, hi);
+                    AESCTR.putLong(counters, b + 8, lo);
+                    if (++lo == 0) {
+                        hi++;
+                    }
+                }
+                AESEngine.encryptBlocks4(w, counters, i, ks, i);
+            }
+            int i = 0;
+            for (; i + 8 <= n; i += 8) {
+                outMap.putLong(pos + i, inMap.getLong(pos + i) ^ AESCTR.getLong(ks, i));
+            }
+            for (; i < n; i++) {
+                outMap.put(pos + i, (byte) (inMap.get(pos + i) ^ ks[i]));
+            }
+        }
+    }
+
+    // ---------- CBC ----------
+    private static long cbcEncrypt(FileChannel src, FileChannel dst, long len, AESKey key, byte[] iv, int window)
+            throws IOException {
+        long outLen = len + BLOCK_SIZE - (len % BLOCK_SIZE);
+        byte[] block = new byte[BLOCK_SIZE];
+        long c0 = AESCTR.getLong(iv, 0);
+        long c1 = AESCTR.getLong(iv, 8);
+
+        for (long pos = 0; pos < outLen; pos += window) {
+            int n = (int) Math.min(window, outLen - pos);
+            int avail = (int) Math.max(0, Math.min(n, len - pos)); // plaintext bytes in this window
+            MappedByteBuffer inMap = avail > 0 ? src.map(FileChannel.MapMode.READ_ONLY, pos, avail) : null;
+            MappedByteBuffer outMap = dst.map(FileChannel.MapMode.READ_WRITE, pos, n);
+
+            for (int i = 0; i < n; i += BLOCK_SIZE) {
+                if (i + BLOCK_SIZE <= avail) {
+                    AESCTR.putLong(block, 0, inMap.getLong(i) ^ c0);
+                    AESCTR.putLong(block, 8, inMap.getLong(i + 8) ^ c1);
+                } else {
+                    // Last block: remaining plaintext followed by PKCS#7 padding
+                    int rem = Math.max(0, avail - i);
+                    for (int j = 0; j < BLOCK_SIZE; j++) {
+                        block[j] = j < rem ? inMap.get(i + j) : (byte) (BLOCK_SIZE - rem);
+                    }
+                    AESCTR.putLong(block, 0, AESCTR.getLong(block, 0) ^ c0);
+                    AESCTR.putLong(block, 8, AESCTR.getLong(block, 8) ^ c1);
+                }
+                key.encryptBlock(block, 0, block, 0);
+                c0 = AESCTR.getLong(block, 0);
+                c1 = AESCTR.getLong(block, 8);
+                outMap.putLong(i, c0);
+                outMap.putLong(i + 8, c1);
+            }
+        }
+        return outLen;
+    }
+
+    private static long cbcDecrypt(FileChannel src, FileChannel dst, long len, AESKey key, byte[] iv, int window)
+            throws IOException {
+        if (len == 0 || len % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Ciphertext length must be multiple of block size.");
+        }
+        byte[] chain = iv.clone(); // last ciphertext block of the previous window
+        MappedByteBuffer outMap = null;
+        int lastWindowLen = 0;
+
+        for (long pos = 0; pos < len; pos += window) {
+            int n = (int) Math.min(window, len - pos);
+            MappedByteBuffer inMap = src.map(FileChannel.MapMode.READ_ONLY, pos, n);
+            MappedByteBuffer out = dst.map(FileChannel.MapMode.READ_WRITE, pos, n);
+            long chain0 = AESCTR.getLong(chain, 0);
+            long chain1 = AESCTR.getLong(chain, 8);
+
+            forEachRange(n, (from, to) -> cbcDecryptRange(key, chain0, chain1, inMap, out, from, to));
+
+            inMap.get(n - BLOCK_SIZE, chain);
+            outMap = out;
+            lastWindowLen = n;
+        }
+
+        // Strip PKCS#7 padding from the end of the last window
+        int padLen = outMap.get(lastWindowLen - 1) & 0xff;
+        boolean valid = padLen >= 1 && padLen <= BLOCK_SIZE;
+        for (int i = lastWindowLen - padLen; valid && i < lastWindowLen; i++) {
+            valid = (outMap.get(i) & 0xff) == padLen;
+        }
+        if (!valid) {
+            // Never leave the unverified plaintext behind
+            dst.truncate(0);
+            throw new IllegalArgumentException("Invalid PKCS#7 padding.");
+        }
+        dst.truncate(len - padLen);
+        return len - padLen;
+    }
+
+    private static void cbcDecryptRange(AESKey key, long chain0, long chain1,
+                                        MappedByteBuffer inMap, MappedByteBuffer outMap, int from, int to) {
+        byte[] block = new byte[BLOCK_SIZE];
+        for (int i = from; i < to; i += BLOCK_SIZE) {
+            inMap.get(i, block);
+            key.decryptBlock(block, 0, block, 0);
+            long p0 = i == 0 ? chain0 : inMap.getLong(i - BLOCK_SIZE);
+            long p1 = i == 0 ? chain1 : inMap.getLong(i - 8);
+            outMap.putLong(i, AESCTR.getLong(block, 0) ^ p0);
+            outMap.putLong(i + 8, AESCTR.getLong(block, 8) ^ p1);
+        }
+    }
+
+    // ---------- Fork/Join Splitting ----------
+    @FunctionalInterface
+    private interface RangeOp {
+        void run(int from, int to);
+    }
+
+    /** Runs op over [0, len) in block-aligned ranges, in parallel when large. */
+    private static void forEachRange(int len, RangeOp op) {
+        if (len <= GRAIN) {
+            op.run(0, len);
+        } else {
+            ForkJoinPool.commonPool().invoke(new RangeTask(op, 0, len));
+        }
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final RangeOp op;
+        private final int from, to;
+
+        RangeTask(RangeOp op, int from, int to) {
+            this.op = op;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                op.run(from, to);
+                return;
+            }
+            int mid = from + ((to - from) / 2 / BLOCK_SIZE) * BLOCK_SIZE;
+            invokeAll(new RangeTask(op, from, mid), new RangeTask(op, mid, to));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package AES;
+
+import util.BlockStream;
+import util.BlockStream.Sink;
+import util.BlockStream.Source;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static AES.AES.BLOCK_SIZE;
+
+/**
+ * Streaming AES over {@link InputStream}/{@link OutputStream} and
+ * {@link FileChannel}s with one fixed, reusable buffer.
+ * <p>
+ * A thin adapter over {@link BlockStream}: the CBC chaining block and the CTR
+ * block counter are carried from one buffer to the next, and PKCS#7 padding
+ * (ECB and CBC) is only added to (or stripped from) the very last block.
+ */
+public final class AESStream {
+
+    public enum Mode { ECB, CBC, CTR }
+
+    /** Default buffer size in bytes; always a multiple of the block size. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private AESStream() {
+    } // static helpers only
+
+    // ---------- InputStream / OutputStream ----------
+
+    /** Encrypts everything from {@code in} to {@code out}; returns the bytes written. */
+    public static long encrypt(InputStream in, OutputStream out, AESKey key, Mode mode, byte[] iv)
+            throws IOException {
+        return encrypt(in::read, out::write, key, mode, iv, DEFAULT_BUFFER_SIZE);
+    }
+
+    /** Decrypts everything from {@code in} to {@code out}; returns the bytes written. */
+    public static long decrypt(InputStream in, OutputStream out, AESKey key, Mode mode, byte[] iv)
+            throws IOException {
+        return decrypt(in::read, out::write, key, mode, iv, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static long encrypt(InputStream in, OutputStream out, AESKey key, Mode mode, byte[] iv,
+                               int bufferSize) throws IOException {
+        return encrypt(in::read, out::write, key, mode, iv, bufferSize);
+    }
+
+    public static long decrypt(InputStream in, OutputStream out, AESKey key, Mode mode, byte[] iv,
+                               int bufferSize) throws IOException {
+        return decrypt(in::read, out::write, key, mode, iv, bufferSize);
+    }
+
+    // ---------- Channels (FileChannel, SocketChannel, ...) ----------
+    public static long encrypt(ReadableByteChannel in, WritableByteChannel out, AESKey key, Mode mode, byte[] iv)
+            throws IOException {
+        return encrypt(source(in), sink(out), key, mode, iv, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static long decrypt(ReadableByteChannel in, WritableByteChannel out, AESKey key, Mode mode, byte[] iv)
+            throws IOException {
+        return decrypt(source(in), sink(out), key, mode, iv, DEFAULT_BUFFER_SIZE);
+    }
+
+    /** Encrypts one file into another through FileChannels. */
+    public static long encryptFile(Path in, Path out, AESKey key, Mode mode, byte[] iv) throws IOException {
+        try (FileChannel src = FileChannel.open(in, StandardOpenOption.READ);
+             FileChannel dst = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            return encrypt(src, dst, key, mode, iv);
+        }
+    }
+
+    public static long decryptFile(Path in, Path out, AESKey key, Mode mode, byte[] iv) throws IOException {
+        try (FileChannel src = FileChannel.open(in, StandardOpenOption.READ);
+             FileChannel dst = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            return decrypt(src, dst, key, mode, iv);
+        }
+    }
+
+    // ---------- Core Pipeline ----------
+    static long encrypt(Source in, Sink out, AESKey key, Mode mode, byte[] iv, int bufferSize)
+            throws IOException {
+        return BlockStream.encrypt(in, out, new BlockState(key, mode, iv), BLOCK_SIZE, mode != Mode.CTR, bufferSize);
+    }
+
+    static long decrypt(Source in, Sink out, AESKey key, Mode mode, byte[] iv, int bufferSize)
+            throws IOException {
+        return BlockStream.decrypt(in, out, new BlockState(key, mode, iv), BLOCK_SIZE, mode != Mode.CTR, bufferSize);
+    }
+
+    /**
+     * Chaining state carried between buffers: the previous ciphertext block for
+     * CBC and the next block index for CTR.
+     */
+    private static final class BlockState implements BlockStream.Chain {
+        private final AESKey key;
+        private final Mode mode;
+        private final byte[] chain = new byte[BLOCK_SIZE];
+        private final byte[] tmp = new byte[BLOCK_SIZE];
+        private final long ivHi, ivLo;
+        private long blockIndex;
+
+        BlockState(AESKey key, Mode mode, byte[] iv) {
+            this.key = key;
+            this.mode = mode;
+            if (mode == Mode.ECB) {
+                ivHi = ivLo = 0;
+            } else {
+                AES.checkIV(iv);
+                System.arraycopy(iv, 0, chain, 0, BLOCK_SIZE);
+                ivHi = AESCTR.getLong(iv, 0);
+                ivLo = AESCTR.getLong(iv, 8);
+            }
+        }
+
+        @Override
+        public void encrypt(byte[] buf, int len) {
+            switch (mode) {
+                case ECB -> {
+                    for (int i = 0; i < len; i += BLOCK_SIZE) {
+                        key.encryptBlock(buf, i, buf, i);
+                    }
+                }
+                case CBC -> {
+                    for (int i = 0; i < len; i += BLOCK_SIZE) {
+                        for (int j = 0; j < BLOCK_SIZE; j++) {
+                            buf[i + j] ^= chain[j];
+                        }
+                        key.encryptBlock(buf, i, buf, i);
+                        System.arraycopy(buf, i, chain, 0, BLOCK_SIZE);
+                    }
+                }
+                case CTR -> ctr(buf, len);
+            }
+        }
+
+        @Override
+        public void decrypt(byte[] buf, int len) {
+            switch (mode) {
+                case ECB -> {
+                    for (int i = 0; i < len; i += BLOCK_SIZE) {
+                        key.decryptBlock(buf, i, buf, i);
+                    }
+                }
+                case CBC -> {
+                    for (int i = 0; i < len; i += BLOCK_SIZE) {
+                        System.arraycopy(buf, i, tmp, 0, BLOCK_SIZE);
+                        key.decryptBlock(buf, i, buf, i);
+                        for (int j = 0; j < BLOCK_SIZE; j++) {
+                            buf[i + j] ^= chain[j];
+                        }
+                        System.arraycopy(tmp, 0, chain, 0, BLOCK_SIZE);
+                    }
+                }
+                case CTR -> ctr(buf, len);
+            }
+        }
+
+        private void ctr(byte[] buf, int len) {
+            AESCTR.cryptRange(key, ivHi, ivLo, blockIndex, buf, 0, len, buf, 0);
+            blockIndex += len / BLOCK_SIZE;
+        }
+    }
+
+    // ---------- Helpers ----------
+    private static Source source(ReadableByteChannel ch) {
+        return (b, off, len) -> ch.read(ByteBuffer.wrap(b, off, len));
+    }
+
+    private static Sink sink(WritableByteChannel ch) {
+        return (b, off, len) -> {
+            ByteBuffer bb = ByteBuffer.wrap(b, off, len);
+            while (bb.hasRemaining()) {
+                ch.write(bb);
+            }
+        };
+    }
+}
@@ -0,0 +1,277 @@
+package AES;
+
+import util.Xor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static AES.AES.BLOCK_SIZE;
+
+/**
+ * AES-XTS (IEEE 1619 / NIST SP 800-38E) for sector-addressed storage.
+ * <p>
+ * Every sector is encrypted on its own under the tweak T = E(K2, sector number),
+ * which is multiplied by x in GF(2^128) from one block to the next, so any
+ * sector can be read or rewritten without touching its neighbours:
+ * <pre>
+ *   AESXTS xts = new AESXTS(key64);
+ *   xts.encryptSector(n, page, 0, 4096, out, 0);
+ * </pre>
+ * A sector whose length is not a multiple of 16 bytes is handled with
+ * ciphertext stealing, so the ciphertext is exactly as long as the plaintext.
+ * Sectors are independent, so {@link #encryptSectors} spreads a run of them
+ * over a {@link ForkJoinPool}. Instances hold only the two expanded keys and
+ * can be shared between threads.
+ */
+public final class AESXTS {
+
+    /** Runs of at least this many bytes are split across the common ForkJoinPool. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+    private static final VarHandle LE_LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final int TILE = 4 * BLOCK_SIZE;
+
+    private final AESKey dataKey;   // K1, encrypts the blocks
+    private final AESKey tweakKey;  // K2, encrypts the sector number
+
+    /**
+     * @param key K1 || K2; 32 bytes for AES-128-XTS or 64 bytes for AES-256-XTS
+     */
+    public AESXTS(byte[] key) {
+        if (key.length != 32 && key.length != 64) {
+            throw new IllegalArgumentException("XTS key must be 32 or 64 bytes.");
+        }
+        int half = key.length / 2;
+        byte[] k1 = Arrays.copyOfRange(key, 0, half);
+        byte[] k2 = Arrays.copyOfRange(key, half, key.length);
+        try {
+            // SP 800-38E: identical halves reduce XTS to a weaker mode
+            if (MessageDigest.isEqual(k1, k2)) {
+                throw new IllegalArgumentException("XTS key halves must differ.");
+            }
+            this.dataKey = new AESKey(k1);
+            this.tweakKey = new AESKey(k2);
+        } finally {
+            Arrays.fill(k1, (byte) 0);
+            Arrays.fill(k2, (byte) 0);
+        }
+    }
+
+    public AESXTS(AESKey dataKey, AESKey tweakKey) {
+        if (dataKey.keySize() != tweakKey.keySize()) {
+            throw new IllegalArgumentException("XTS data and tweak keys must be the same size.");
+        }
+        this.dataKey = dataKey;
+        this.tweakKey = tweakKey;
+    }
+
+    // ---------- Single Sector ----------
+
+    /** Encrypts one whole sector into a new array. */
+    public byte[] encryptSector(long sector, byte[] plaintext) {
+        byte[] out = new byte[plaintext.length];
+        encryptSector(sector, plaintext, 0, plaintext.length, out, 0);
+        return out;
+    }
+
+    /** Decrypts one whole sector into a new array. */
+    public byte[] decryptSector(long sector, byte[] ciphertext) {
+        byte[] out = new byte[ciphertext.length];
+        decryptSector(sector, ciphertext, 0, ciphertext.length, out, 0);
+        return out;
+    }
+
+    /**
+     * Encrypts {@code len} bytes (at least one block) as sector number
+     * {@code sector}. {@code out} may be the same range as {@code in}.
+     */
+    public void encryptSector(long sector, byte[] in, int inOff, int len, byte[] out, int outOff) {
+        checkSector(len);
+        cryptSector(true, sector, in, inOff, len, out, outOff);
+    }
+
+    public void decryptSector(long sector, byte[] in, int inOff, int len, byte[] out, int outOff) {
+        checkSector(len);
+        cryptSector(false, sector, in, inOff, len, out, outOff);
+    }
+
+    // ---------- Sector Runs ----------
+
+    /**
+     * Encrypts consecutive sectors {@code firstSector, firstSector + 1, ...} of
+     * {@code sectorSize} bytes each; {@code len} must be a whole number of sectors.
+     */
+    public void encryptSectors(long firstSector, int sectorSize,
+                               byte[] in, int inOff, int len, byte[] out, int outOff) {
+        cryptSectors(true, firstSector, sectorSize, in, inOff, len, out, outOff, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    public void decryptSectors(long firstSector, int sectorSize,
+                               byte[] in, int inOff, int len, byte[] out, int outOff) {
+        cryptSectors(false, firstSector, sectorSize, in, inOff, len, out, outOff, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param parallelThreshold runs of at least this many bytes are split across
+     *                          the common ForkJoinPool; also the size of one work
+     *                          unit, rounded to whole sectors
+     */
+    public void cryptSectors(boolean encrypt, long firstSector, int sectorSize,
+                             byte[] in, int inOff, int len, byte[] out, int outOff, int parallelThreshold) {
+        checkSector(sectorSize);
+        if (len % sectorSize != 0) {
+            throw new IllegalArgumentException("Length must be a multiple of the sector size.");
+        }
+        if (parallelThreshold < BLOCK_SIZE) {
+            throw new IllegalArgumentException("Parallel threshold must be at least one block.");
+        }
+
+        int sectors = len / sectorSize;
+        int chunkSectors = Math.max(1, parallelThreshold / sectorSize);
+        if (len < parallelThreshold || sectors <= chunkSectors) {
+            cryptRange(encrypt, firstSector, sectorSize, 0, sectors, in, inOff, out, outOff);
+        } else {
+            ForkJoinPool.commonPool().invoke(new XtsTask(encrypt, firstSector, sectorSize,
+                    in, inOff, out, outOff, 0, sectors, chunkSectors));
+        }
+    }
+
+    // ---------- Serial Core ----------
+
+    private void cryptRange(boolean encrypt, long firstSector, int sectorSize, int from, int to,
+                            byte[] in, int inOff, byte[] out, int outOff) {
+        for (int s = from; s < to; s++) {
+            int off = s * sectorSize;
+            cryptSector(encrypt, firstSector + s, in, inOff + off, sectorSize, out, outOff + off);
+        }
+    }
+
+    private void cryptSector(boolean encrypt, long sector, byte[] in, int inOff, int len,
+                             byte[] out, int outOff) {
+        long[] t = initialTweak(sector);
+        byte[] tweaks = new byte[TILE];
+        int tail = len % BLOCK_SIZE;
+        // With stealing, the last full block is handled together with the tail
+        int plainBlocks = len / BLOCK_SIZE - (tail == 0 ? 0 : 1);
+
+        int pos = 0;
+        for (int done = 0; done < plainBlocks; ) {
+            int n = Math.min(4, plainBlocks - done);
+            cryptBlocks(encrypt, t, n, tweaks, in, inOff + pos, out, outOff + pos);
+            done += n;
+            pos += n * BLOCK_SIZE;
+        }
+        if (tail == 0) {
+            return;
+        }
+
+        // Ciphertext stealing. Encryption uses T[m-1] then T[m]; decryption the reverse.
+        long[] first = t;
+        long[] second = t;
+        if (!encrypt) {
+            second = t.clone();
+            nextTweak(first);
+        }
+        byte[] head = new byte[BLOCK_SIZE];
+        cryptBlocks(encrypt, first, 1, tweaks, in, inOff + pos, head, 0);
+
+        byte[] last = new byte[BLOCK_SIZE];
+        System.arraycopy(in, inOff + pos + BLOCK_SIZE, last, 0, tail);
+        System.arraycopy(head, tail, last, tail, BLOCK_SIZE - tail);
+        System.arraycopy(head, 0, out, outOff + pos + BLOCK_SIZE, tail);
+        cryptBlocks(encrypt, second, 1, tweaks, last, 0, out, outOff + pos);
+    }
+
+    /**
+     * C = E(K1, P xor T) xor T for n (at most 4) consecutive blocks, advancing
+     * the tweak past them. Encryption runs the four blocks interleaved.
+     */
+    private void cryptBlocks(boolean encrypt, long[] t, int n, byte[] tweaks,
+                             byte[] in, int inOff, byte[] out, int outOff) {
+        int len = n * BLOCK_SIZE;
+        for (int b = 0; b < len; b += BLOCK_SIZE) {
+            LE_LONGS.set(tweaks, b, t[0]);
+            LE_LONGS.set(tweaks, b + 8, t[1]);
+            nextTweak(t);
+        }
+        Xor.xor(in, inOff, tweaks, 0, out, outOff, len);
+        if (encrypt && n == 4) {
+            AESEngine.encryptBlocks4(dataKey.encryptionSchedule(), out, outOff, out, outOff);
+        } else {
+            for (int b = 0; b < len; b += BLOCK_SIZE) {
+                if (encrypt) {
+                    dataKey.encryptBlock(out, outOff + b, out, outOff + b);
+                } else {
+                    dataKey.decryptBlock(out, outOff + b, out, outOff + b);
+                }
+            }
+        }
+        Xor.xor(out, outOff, tweaks, 0, out, outOff, len);
+    }
+
+    // ---------- Tweak ----------
+
+    /** T = E(K2, sector) with the sector number as a 128-bit little-endian integer. */
+    private long[] initialTweak(long sector) {
+        byte[] block = new byte[BLOCK_SIZE];
+        LE_LONGS.set(block, 0, sector);
+        tweakKey.encryptBlock(block, 0, block, 0);
+        return new long[]{(long) LE_LONGS.get(block, 0), (long) LE_LONGS.get(block, 8)};
+    }
+
+    /** T = T * x in GF(2^128) mod x^128 + x^7 + x^2 + x + 1, little-endian bit order. */
+    static void nextTweak(long[] t) {
+        long carry = (t[1] >> 63) & 0x87;
+        t[1] = (t[1] << 1) | (t[0] >>> 63);
+        t[0] = (t[0] << 1) ^ carry;
+    }
+
+    private static void checkSector(int len) {
+        if (len < BLOCK_SIZE) {
+            throw new IllegalArgumentException("XTS sector must be at least one block.");
+        }
+    }
+
+    // ---------- Fork/Join Splitting ----------
+    private final class XtsTask extends RecursiveAction {
+        private final boolean encrypt;
+        private final long firstSector;
+        private final int sectorSize;
+        private final byte[] in, out;
+        private final int inOff, outOff;
+        private final int from, to;         // sector indices relative to firstSector
+        private final int chunkSectors;
+
+        XtsTask(boolean encrypt, long firstSector, int sectorSize, byte[] in, int inOff,
+                byte[] out, int outOff, int from, int to, int chunkSectors) {
+            this.encrypt = encrypt;
+            this.firstSector = firstSector;
+            this.sectorSize = sectorSize;
+            this.in = in;
+            this.inOff = inOff;
+            this.out = out;
+            this.outOff = outOff;
+            this.from = from;
+            this.to = to;
+            this.chunkSectors = chunkSectors;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSectors) {
+                cryptRange(encrypt, firstSector, sectorSize, from, to, in, inOff, out, outOff);
+                return;
+            }
+            int mid = from + (to - from) / 2;
+            invokeAll(new XtsTask(encrypt, firstSector, sectorSize, in, inOff, out, outOff, from, mid, chunkSectors),
+                    new XtsTask(encrypt, firstSector, sectorSize, in, inOff, out, outOff, mid, to, chunkSectors));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package AES;
+
+/**
+ * GHASH multiplication in GF(2^128) for GCM (NIST SP 800-38D).
+ * <p>
+ * Uses Shoup's 4-bit method: sixteen precomputed multiples of H, so one block
+ * costs 32 table lookups and shifts instead of a 128-step bit loop. Field
+ * elements are two longs in GCM bit order (hi = bytes 0..7 big-endian).
+ */
+final class GHASH {
+
+    private static final long R = 0xE100000000000000L; // x^128 + x^7 + x^2 + x + 1, reflected
+
+    // Reduction of the 4 bits shifted out of the low end in one step
+    private static final long[] REM_4BIT = new long[16];
+
+    static {
+        for (int i = 0; i < 16; i++) {
+            long r = 0;
+            for (int j = 0; j < 4; j++) {
+                if ((i & (1 << j)) != 0) {
+                    r ^= (0xE100L >>> (3 - j)) << 48;
+                }
+            }
+            REM_4BIT[i] = r;
+        }
+    }
+
+    private final long[] tHi = new long[16];
+    private final long[] tLo = new long[16];
+
+    GHASH(long hHi, long hLo) {
+        // T[8] = H, T[4] = H*x, T[2] = H*x^2, T[1] = H*x^3; the rest are XOR combinations
+        tHi[8] = hHi;
+        tLo[8] = hLo;
+        for (int i = 4; i > 0; i >>= 1) {
+            long hi = tHi[2 * i], lo = tLo[2 * i];
+            long carry = (lo & 1) != 0 ? R : 0;
+            tLo[i] = (lo >>> 1) | (hi << 63);
+            tHi[i] = (hi >>> 1) ^ carry;
+        }
+        for (int i = 2; i < 16; i <<= 1) {
+            for (int j = 1; j < i; j++) {
+                tHi[i + j] = tHi[i] ^ tHi[j];
+                tLo[i + j] = tLo[i] ^ tLo[j];
+            }
+        }
+    }
+
+    /** y = y * H, with y = {hi, lo}. */
+    void multiplyH(long[] y) {
+        long xHi = y[0], xLo = y[1];
+
+        int b = (int) xLo & 0xff;
+        long zHi = tHi[b & 0xf], zLo = tLo[b & 0xf];
+        int nhi = b >>> 4;
+
+        for (int cnt = 14; ; cnt--) {
+            int rem = (int) zLo & 0xf;
+            zLo = (zHi << 60) | (zLo >>> 4);
+            zHi = (zHi >>> 4) ^ REM_4BIT[rem];
+            zHi ^= tHi[nhi];
+            zLo ^= tLo[nhi];
+            if (cnt < 0) {
+                break;
+            }
+
+            b = byteAt(xHi, xLo, cnt);
+            rem = (int) zLo & 0xf;
+            zLo = (zHi << 60) | (zLo >>> 4);
+            zHi = (zHi >>> 4) ^ REM_4BIT[rem];
+            zHi ^= tHi[b & 0xf];
+            zLo ^= tLo[b & 0xf];
+            nhi = b >>> 4;
+        }
+        y[0] = zHi;
+        y[1] = zLo;
+    }
+
+    /** Folds {@code blocks} whole 16-byte blocks of {@code in} into y. */
+    void update(long[] y, byte[] in, int off, int blocks) {
+        for (int i = 0; i < blocks; i++, off += 16) {
+            y[0] ^= AESCTR.getLong(in, off);
+            y[1] ^= AESCTR.getLong(in, off + 8);
+            multiplyH(y);
+        }
+    }
+
+    private static int byteAt(long hi, long lo, int k) {
+        return k < 8
+                ? (int) (hi >>> (8 * (7 - k))) & 0xff
+                : (int) (lo >>> (8 * (15 - k))) & 0xff;
+    }
+
+    // ---------- Generic Multiply (setup and chunk combining only) ----------
+
+    /** x = x * y, bit by bit as in SP 800-38D Algorithm 1. */
+    static void multiply(long[] x, long yHi, long yLo) {
+        long zHi = 0, zLo = 0;
+        long vHi = yHi, vLo = yLo;
+        for (int i = 0; i < 128; i++) {
+            long bit = i < 64 ? (x[0] >>> (63 - i)) & 1 : (x[1] >>> (127 - i)) & 1;
+            if (bit != 0) {
+                zHi ^= vHi;
+                zLo ^= vLo;
+            }
+            long carry = (vLo & 1) != 0 ? R : 0;
+            vLo = (vLo >>> 1) | (vHi << 63);
+            vHi = (vHi >>> 1) ^ carry;
+        }
+        x[0] = zHi;
+        x[1] = zLo;
+    }
+
+    /** Returns H^n by square-and-multiply. */
+    static long[] power(long hHi, long hLo, long n) {
+        long[] result = {0x8000000000000000L, 0}; // the field's one element
+        long[] base = {hHi, hLo};
+        while (n > 0) {
+            if ((n & 1) != 0) {
+                multiply(result, base[0], base[1]);
+            }
+            multiply(base, base[0], base[1]);
+            n >>>= 1;
+        }
+        return result;
+    }
+}
@@ -1,6 +1,6 @@
 @echo off
 echo Compiling all AES source files...
-javac *.java
+javac -cp .. --add-modules jdk.incubator.vector *.java
 if %errorlevel% neq 0 (
     echo Error: Failed to compile one or more files.
     pause
@@ -1,6 +1,6 @@
 #!/bin/bash
 echo "Compiling all AES source files..."
-javac *.java
+javac -cp .. --add-modules jdk.incubator.vector *.java
 if [ $? -ne 0 ]; then
     echo "Error: Failed to compile one or more files."
     read -n1 -s -r -p "Press any key to continue..."
@@ -1,9 +1,15 @@
 package DES;
 
+import util.BlockCipher;
+import util.ConsoleTraceListener;
+import util.TraceListener;
+
+import java.util.HexFormat;
+
 public class DES {
 
     // ------------------ Tables for DES ------------------
-    private static final int[] IP = {
+    static final int[] IP = {
             58, 50, 42, 34, 26, 18, 10, 2,
             60, 52, 44, 36, 28, 20, 12, 4,
             62, 54, 46, 38, 30, 22, 14, 6,
@@ -14,7 +20,7 @@ public class DES {
             63, 55, 47, 39, 31, 23, 15, 7
     };
 
-    private static final int[] FP = {
+    static final int[] FP = {
             40, 8, 48, 16, 56, 24, 64, 32,
             39, 7, 47, 15, 55, 23, 63, 31,
             38, 6, 46, 14, 54, 22, 62, 30,
@@ -25,7 +31,7 @@ public class DES {
             33, 1, 41, 9, 49, 17, 57, 25
     };
 
-    private static final int[] E = {
+    static final int[] E = {
             32, 1, 2, 3, 4, 5,
             4, 5, 6, 7, 8, 9,
             8, 9, 10, 11, 12, 13,
@@ -36,7 +42,7 @@ public class DES {
             28, 29, 30, 31, 32, 1
     };
 
-    private static final int[] P = {
+    static final int[] P = {
             16, 7, 20, 21,
             29, 12, 28, 17,
             1, 15, 23, 26,
@@ -47,7 +53,7 @@ public class DES {
             22, 11, 4, 25
     };
 
-    private static final int[] PC1 = {
+    static final int[] PC1 = {
             57, 49, 41, 33, 25, 17, 9,
             1, 58, 50, 42, 34, 26, 18,
             10, 2, 59, 51, 43, 35, 27,
@@ -58,7 +64,7 @@ public class DES {
             21, 13, 5, 28, 20, 12, 4
     };
 
-    private static final int[] PC2 = {
+    static final int[] PC2 = {
             14, 17, 11, 24, 1, 5,
             3, 28, 15, 6, 21, 10,
             23, 19, 12, 4, 26, 8,
@@ -69,12 +75,12 @@ public class DES {
             46, 42, 50, 36, 29, 32
     };
 
-    private static final int[] SHIFTS = {
+    static final int[] SHIFTS = {
             1, 1, 2, 2, 2, 2, 2, 2,
             1, 2, 2, 2, 2, 2, 2, 1
     };
 
-    private static final int[][][] S_BOX = {
+    static final int[][][] S_BOX = {
             {
                     {14, 4, 13, 1, 2, 15, 11, 8, 3, 10, 6, 12, 5, 9, 0, 7},
                     {0, 15, 7, 4, 14, 2, 13, 1, 10, 6, 12, 11, 9, 5, 3, 8},
@@ -218,6 +224,14 @@ public class DES {
 
     // -------------- Single-Block Encryption & Decryption --------------
     public static String encryptBlock(String plainHex, String keyHex) {
+        return encryptBlock(plainHex, keyHex, null);
+    }
+
+    /**
+     * Encrypts one block, reporting R[i]L[i] after every round and the final
+     * ciphertext to {@code trace} (may be {@code null}).
+     */
+    public static String encryptBlock(String plainHex, String keyHex, TraceListener trace) {
         int[] ptBits = permute(hexStringToBitArray(plainHex, 64), IP);
         int[] L = new int[32], R = new int[32];
         System.arraycopy(ptBits, 0, L, 0, 32);
@@ -225,22 +239,23 @@ public class DES {
 
         int[][] roundKeys = generateRoundKeys(keyHex);
 
-        // Print round-by-round
         for (int i = 0; i < 16; i++) {
             int[] oldR = R;
             int[] fOut = fFunction(R, roundKeys[i]);
             R = xor(L, fOut);
             L = oldR;
-            int[] roundConcat = concat(R, L);
-            System.out.println("Round " + (i + 1) + ":");
-            System.out.println("R[i]L[i]: " + bitArrayToBinaryString(roundConcat));
+            if (trace != null) {
+                trace.round(i + 1, "R[i]L[i]", bitArrayToBinaryString(concat(R, L)));
+            }
         }
 
         int[] preoutput = concat(R, L);
         int[] ctBits = permute(preoutput, FP);
 
         String ctHex = bitArrayToHexString(ctBits);
-        System.out.println("Final Ciphertext (hex): " + ctHex);
+        if (trace != null) {
+            trace.step("Final Ciphertext (hex)", ctHex);
+        }
         return ctHex;
     }
 
@@ -265,14 +280,53 @@ public class DES {
 
     // For multi-block decryption, use your existing method:
     public static String decryptText(String ciphertextHex, String keyHex) {
+        return decryptText(ciphertextHex, DESKey.fromHex(keyHex));
+    }
+
+    // -------------- Expanded-Key Block & Text Operations --------------
+    // Same results as the hex-key methods above, but the subkeys come from the
+    // DESKey and each block runs through the long-based DESEngine.
+
+    public static String encryptBlock(String plainHex, DESKey key) {
+        return encryptBlock(plainHex, key, null);
+    }
+
+    public static String encryptBlock(String plainHex, DESKey key, TraceListener trace) {
+        return toHex(encrypt(parseBlock(plainHex), key, trace));
+    }
+
+    public static String decryptBlock(String cipherHex, DESKey key) {
+        return toHex(key.decryptBlock(parseBlock(cipherHex)));
+    }
+
+    public static String decryptText(String ciphertextHex, DESKey key) {
         StringBuilder plainHex = new StringBuilder();
         for (int i = 0; i < ciphertextHex.length(); i += 16) {
             String block = ciphertextHex.substring(i, i + 16);
-            plainHex.append(decryptBlock(block, keyHex));
+            plainHex.append(decryptBlock(block, key));
         }
         return hexToString(unpadHex(plainHex.toString()));
     }
 
+    // Encrypts one block, with the same trace events as the bit-array encryptBlock
+    static long encrypt(long block, DESKey key, TraceListener trace) {
+        long ct = DESEngine.cryptBlock(block, key.encryptionSubkeys(), trace);
+        if (trace != null) {
+            trace.step("Final Ciphertext (hex)", toHex(ct));
+        }
+        return ct;
+    }
+
+    static long parseBlock(String hex) {
+        if (hex.length() != 16) {
+            throw new IllegalArgumentException("DES block must be 16 hex digits.");
+        }
+        return Long.parseUnsignedLong(hex, 16);
+    }
+
+    static String toHex(long block) {
+        return HexFormat.of().toHexDigits(block);
+    }
 
     // -------------- Text <-> Hex, Padding, Multi-Block --------------
     public static String textToHex(String text) {
@@ -314,18 +368,76 @@ public class DES {
     }
 
     public static String encryptText(String text, String keyHex) {
+        return encryptText(text, keyHex, null);
+    }
+
+    public static String encryptText(String text, String keyHex, TraceListener trace) {
+        return encryptText(text, DESKey.fromHex(keyHex), trace);
+    }
+
+    public static String encryptText(String text, DESKey key) {
+        return encryptText(text, key, null);
+    }
+
+    public static String encryptText(String text, DESKey key, TraceListener trace) {
         String asciiHex = padHex(textToHex(text));
-        System.out.println("[INFO] Text as hex: " + asciiHex);
+        if (trace != null) {
+            trace.step("[INFO] Text as hex", asciiHex);
+        }
 
         StringBuilder out = new StringBuilder();
         for (int i = 0; i < asciiHex.length(); i += 16) {
             String block = asciiHex.substring(i, i + 16);
-            System.out.println("\n--- Encrypting block: " + block + " ---");
-            out.append(encryptBlock(block, keyHex));
+            if (trace != null) {
+                trace.beginBlock(i / 16 + 1, block);
+            }
+            out.append(encryptBlock(block, key, trace));
         }
         return out.toString();
     }
 
+    // -------------- Engines for the Byte-Array Modes --------------
+
+    /**
+     * The block cipher for a raw key: 8 bytes give single DES, 16 or 24 bytes
+     * two- or three-key 3DES. Both engines are documented exceptions to the
+     * {@link BlockCipher} one-per-thread rule, so the result can be shared
+     * between threads until it is destroyed.
+     */
+    public static BlockCipher engine(byte[] key, boolean forEncryption) {
+        return switch (key.length) {
+            case DESEngine.BLOCK_SIZE -> new DESEngine(key, forEncryption);
+            case 16, 24 -> new TripleDESEngine(key, forEncryption);
+            default -> throw new IllegalArgumentException("DES key must be 8, 16 or 24 bytes.");
+        };
+    }
+
+    /** True for the DES engines, which may be shared between threads. */
+    static boolean shareable(BlockCipher cipher) {
+        return cipher instanceof DESEngine || cipher instanceof TripleDESEngine;
+    }
+
+    /** Wipes the subkeys of an engine built by {@link #engine}. */
+    static void destroy(BlockCipher cipher) {
+        if (cipher instanceof DESEngine des) {
+            des.destroy();
+        } else if (cipher instanceof TripleDESEngine tripleDes) {
+            tripleDes.destroy();
+        }
+    }
+
+    static void checkIV(byte[] iv) {
+        if (iv == null || iv.length != DESEngine.BLOCK_SIZE) {
+            throw new IllegalArgumentException("IV must be " + DESEngine.BLOCK_SIZE + " bytes.");
+        }
+    }
+
+    static void checkCipher(BlockCipher cipher) {
+        if (cipher.getBlockSize() != DESEngine.BLOCK_SIZE) {
+            throw new IllegalArgumentException("Block cipher must have " + DESEngine.BLOCK_SIZE + "-byte blocks.");
+        }
+    }
+
     // -------------- MAIN --------------
     public static void main(String[] args) {
         // Single-block example from your professor
@@ -336,7 +448,8 @@ public class DES {
         System.out.println("Key:       " + key);
         System.out.println("Datablock: " + block);
         System.out.println("==========================================");
-        String cipherHex = encryptBlock(block, key);
+        TraceListener trace = new ConsoleTraceListener();
+        String cipherHex = encryptBlock(block, key, trace);
         System.out.println("Computed Final Ciphertext: " + cipherHex + " (expected: fc914f586f29d5f5)");
 
         // Single-block decryption of professor's example
@@ -349,7 +462,7 @@ public class DES {
         System.out.println("\n=== Multi-Block Encryption of a Text ===");
         System.out.println("Plaintext: " + text);
         System.out.println("------------------------------------------");
-        String textCipher = encryptText(text, key);
+        String textCipher = encryptText(text, key, trace);
         System.out.println("\n[FINAL] Encrypted text (hex): " + textCipher);
 
         // Multi-block decryption
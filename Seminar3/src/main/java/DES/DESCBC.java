@@ -0,0 +1,82 @@
+package DES;
+
+import util.BlockCipher;
+import util.PKCS7;
+
+import java.util.Arrays;
+
+import static DES.DESEngine.BLOCK_SIZE;
+import static DES.DESEngine.getLong;
+import static DES.DESEngine.putLong;
+
+/**
+ * DES and 3DES in CBC mode over byte arrays, with PKCS#7 padding.
+ * <p>
+ * Unlike {@link DES#encryptText}, which zero-pads a hex String, these methods
+ * work on bytes and can round-trip any input, including trailing zero bytes.
+ * A block is only 8 bytes, so the chaining value is carried in a {@code long}
+ * and XORed in with one operation per block. Encryption needs a cipher built
+ * for encryption and decryption one built for decryption; the {@code byte[] key}
+ * overloads pick the right one.
+ */
+public final class DESCBC {
+
+    private DESCBC() {
+    } // static helpers only
+
+    // ---------- Public API ----------
+
+    /** @param key 8 (DES), 16 or 24 (3DES) bytes */
+    public static byte[] encrypt(byte[] plaintext, byte[] key, byte[] iv) {
+        return encrypt(plaintext, DES.engine(key, true), iv);
+    }
+
+    public static byte[] decrypt(byte[] ciphertext, byte[] key, byte[] iv) {
+        return decrypt(ciphertext, DES.engine(key, false), iv);
+    }
+
+    public static byte[] encrypt(byte[] plaintext, BlockCipher cipher, byte[] iv) {
+        DES.checkIV(iv);
+        DES.checkCipher(cipher);
+        byte[] ciphertext = PKCS7.pad(plaintext, BLOCK_SIZE); // fresh copy, encrypted in place
+        encryptBlocks(ciphertext, 0, ciphertext.length, cipher, getLong(iv, 0));
+        return ciphertext;
+    }
+
+    public static byte[] decrypt(byte[] ciphertext, BlockCipher cipher, byte[] iv) {
+        DES.checkIV(iv);
+        DES.checkCipher(cipher);
+        if (ciphertext.length == 0 || ciphertext.length % BLOCK_SIZE != 0) {
+            throw new IllegalArgumentException("Ciphertext length must be multiple of block size.");
+        }
+        byte[] plain = ciphertext.clone();
+        decryptBlocks(plain, 0, plain.length, cipher, getLong(iv, 0));
+        return Arrays.copyOf(plain, plain.length - PKCS7.checkPadding(plain, plain.length, BLOCK_SIZE));
+    }
+
+    // ---------- In-Place Core ----------
+
+    /**
+     * Encrypts {@code len} bytes (whole blocks) of {@code buf} in place, chaining
+     * from {@code chain}; returns the last ciphertext block for the next call.
+     */
+    static long encryptBlocks(byte[] buf, int off, int len, BlockCipher cipher, long chain) {
+        for (int i = off; i < off + len; i += BLOCK_SIZE) {
+            putLong(buf, i, getLong(buf, i) ^ chain);
+            cipher.processBlock(buf, i, buf, i);
+            chain = getLong(buf, i);
+        }
+        return chain;
+    }
+
+    /** Decrypts whole blocks of {@code buf} in place; returns the last ciphertext block. */
+    static long decryptBlocks(byte[] buf, int off, int len, BlockCipher cipher, long chain) {
+        for (int i = off; i < off + len; i += BLOCK_SIZE) {
+            long c = getLong(buf, i);
+            cipher.processBlock(buf, i, buf, i);
+            putLong(buf, i, getLong(buf, i) ^ chain);
+            chain = c;
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,162 @@
+package DES;
+
+import util.BlockCipher;
+import util.Xor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import static DES.DESEngine.BLOCK_SIZE;
+import static DES.DESEngine.putLong;
+
+/**
+ * DES and 3DES in counter mode (NIST SP 800-38A).
+ * <p>
+ * The 8-byte IV is the initial counter block; block i of the message is XORed
+ * with E(K, IV + i), a 64-bit big-endian increment that wraps like the JDK's
+ * "DES/CTR" and "DESede/CTR". Since every block only depends on its own counter,
+ * large inputs are split into independent counter ranges and processed on a
+ * {@link ForkJoinPool}. Encryption and decryption are the same operation and
+ * both use a cipher built for encryption.
+ * <p>
+ * A {@link BlockCipher} in general is not thread-safe, so a cipher passed in is
+ * only ever used serially; the parallel overloads take a {@link Supplier} and
+ * call it once per work unit. The raw-key overload expands the key once and
+ * hands that one engine to every work unit, which the DES engines allow, then
+ * wipes it.
+ */
+public final class DESCTR {
+
+    /** Inputs at least this large (in bytes) are processed in parallel by default. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+    /** Keystream bytes generated per batch. */
+    private static final int TILE = 64 * BLOCK_SIZE;
+
+    private DESCTR() {
+    } // static helpers only
+
+    // ---------- Public API ----------
+
+    /** @param key 8 (DES), 16 or 24 (3DES) bytes */
+    public static byte[] crypt(byte[] input, byte[] key, byte[] iv) {
+        BlockCipher cipher = DES.engine(key, true);
+        try {
+            return crypt(input, () -> cipher, iv, DEFAULT_PARALLEL_THRESHOLD);
+        } finally {
+            DES.destroy(cipher);
+        }
+    }
+
+    /** Serial: {@code cipher} is only used from the calling thread. */
+    public static byte[] crypt(byte[] input, BlockCipher cipher, byte[] iv) {
+        byte[] out = new byte[input.length];
+        crypt(input, 0, input.length, out, 0, cipher, iv);
+        return out;
+    }
+
+    /**
+     * @param ciphers           builds a cipher for encryption; called once per work unit
+     * @param parallelThreshold inputs of at least this many bytes are split across
+     *                          the common ForkJoinPool; also the size of one work unit
+     */
+    public static byte[] crypt(byte[] input, Supplier<? extends BlockCipher> ciphers, byte[] iv,
+                               int parallelThreshold) {
+        byte[] out = new byte[input.length];
+        crypt(input, 0, input.length, out, 0, ciphers, iv, parallelThreshold);
+        return out;
+    }
+
+    /**
+     * Encrypts/decrypts {@code len} bytes of {@code in} into {@code out} on the
+     * calling thread. The two ranges may be the same array region (in-place), but
+     * must not partially overlap.
+     */
+    public static void crypt(byte[] in, int inOff, int len, byte[] out, int outOff,
+                             BlockCipher cipher, byte[] iv) {
+        DES.checkIV(iv);
+        DES.checkCipher(cipher);
+        cryptRange(cipher, DESEngine.getLong(iv, 0), in, inOff, len, out, outOff);
+    }
+
+    /** Same, split across cores when {@code len} reaches {@code parallelThreshold}. */
+    public static void crypt(byte[] in, int inOff, int len, byte[] out, int outOff,
+                             Supplier<? extends BlockCipher> ciphers, byte[] iv, int parallelThreshold) {
+        DES.checkIV(iv);
+        if (parallelThreshold < BLOCK_SIZE) {
+            throw new IllegalArgumentException("Parallel threshold must be at least one block.");
+        }
+        long counter = DESEngine.getLong(iv, 0);
+        if (len < parallelThreshold) {
+            cryptRange(cipher(ciphers), counter, in, inOff, len, out, outOff);
+        } else {
+            int chunkBlocks = parallelThreshold / BLOCK_SIZE;
+            ForkJoinPool.commonPool().invoke(
+                    new CtrTask(ciphers, counter, in, inOff, out, outOff, 0, len, chunkBlocks));
+        }
+    }
+
+    private static BlockCipher cipher(Supplier<? extends BlockCipher> ciphers) {
+        BlockCipher cipher = ciphers.get();
+        DES.checkCipher(cipher);
+        return cipher;
+    }
+
+    // ---------- Serial Core ----------
+
+    /**
+     * Processes {@code len} bytes with the counter starting at {@code counter}.
+     * Keystream is produced a tile at a time and XORed in with {@link Xor}.
+     */
+    static void cryptRange(BlockCipher cipher, long counter,
+                           byte[] in, int inOff, int len, byte[] out, int outOff) {
+        byte[] keystream = new byte[TILE];
+
+        for (int pos = 0; pos < len; pos += TILE) {
+            int n = Math.min(TILE, len - pos);
+            for (int b = 0; b < n; b += BLOCK_SIZE) {
+                putLong(keystream, b, counter++);
+                cipher.processBlock(keystream, b, keystream, b);
+            }
+            Xor.xor(in, inOff + pos, keystream, 0, out, outOff + pos, n);
+        }
+    }
+
+    // ---------- Fork/Join Splitting ----------
+    private static final class CtrTask extends RecursiveAction {
+        private final Supplier<? extends BlockCipher> ciphers;
+        private final long counter;         // counter of the message's first block
+        private final byte[] in, out;
+        private final int inOff, outOff;
+        private final int from, to;         // byte range relative to the message start
+        private final int chunkBlocks;
+
+        CtrTask(Supplier<? extends BlockCipher> ciphers, long counter, byte[] in, int inOff, byte[] out, int outOff,
+                int from, int to, int chunkBlocks) {
+            this.ciphers = ciphers;
+            this.counter = counter;
+            this.in = in;
+            this.inOff = inOff;
+            this.out = out;
+            this.outOff = outOff;
+            this.from = from;
+            this.to = to;
+            this.chunkBlocks = chunkBlocks;
+        }
+
+        @Override
+        protected void compute() {
+            int blocks = (to - from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            if (blocks <= chunkBlocks) {
+                cryptRange(cipher(ciphers), counter + from / BLOCK_SIZE,
+                        in, inOff + from, to - from, out, outOff + from);
+                return;
+            }
+            // Split on a block boundary so each half starts at a whole counter value
+            int mid = from + (blocks / 2) * BLOCK_SIZE;
+            invokeAll(new CtrTask(ciphers, counter, in, inOff, out, outOff, from, mid, chunkBlocks),
+                    new CtrTask(ciphers, counter, in, inOff, out, outOff, mid, to, chunkBlocks));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package DES;
+
+import util.BlockCipher;
+import util.KeyScheduleCache;
+import util.TraceListener;
+
+import javax.security.auth.Destroyable;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static DES.DES.*;
+
+/**
+ * Allocation-free DES block cipher.
+ * <p>
+ * Works on the same tables as {@link DES}, but holds the 64-bit block in a
+ * {@code long} and the halves in {@code int}s instead of one {@code int} per
+ * bit. Every bit permutation (IP, FP, E, P and the key-schedule PC1/PC2) is
+ * precomputed into byte-indexed tables: entry [i][b] holds the output bits
+ * that input byte i contributes when it has value b, so a permutation is one
+ * lookup and OR per input byte instead of one shift per output bit.
+ * The round function goes further: each S-box is folded together with P into
+ * a 64-entry SP table, and E is replaced by reading overlapping 6-bit windows
+ * of R directly, so a round is eight lookups and XORs.
+ * The sixteen 48-bit subkeys are generated once in the constructor (in
+ * reverse order for decryption), so {@link #processBlock} creates no garbage.
+ * Unlike {@link BlockCipher}s in general, an engine keeps no per-call state,
+ * so one instance can be shared between threads until it is destroyed.
+ */
+public final class DESEngine implements BlockCipher, Destroyable {
+
+    public static final int BLOCK_SIZE = 8;
+
+    // ---------- Byte-Indexed Permutation Tables ----------
+    private static final long[][] IP_TABLE = permutationTable(64, IP);
+    private static final long[][] FP_TABLE = permutationTable(64, FP);
+    private static final long[][] PC1_TABLE = permutationTable(64, PC1);
+    private static final long[][] PC2_TABLE = permutationTable(56, PC2);
+
+    // SP[i][x] = P(S_i(x) in output nibble i), with x the raw 6-bit S-box input
+    private static final int[][] SP = new int[8][64];
+
+    static {
+        for (int i = 0; i < 8; i++) {
+            for (int x = 0; x < 64; x++) {
+                int row = ((x >>> 4) & 0x2) | (x & 0x1);
+                int col = (x >>> 1) & 0xf;
+                SP[i][x] = (int) permute((long) S_BOX[i][row][col] << (28 - 4 * i), 32, P);
+            }
+        }
+    }
+
+    private final DESKey key;
+    private final long[] subkeys; // in the order they are applied
+
+    /**
+     * @param key           8 key bytes (parity bits are ignored)
+     * @param forEncryption true to encrypt, false to decrypt
+     */
+    public DESEngine(byte[] key, boolean forEncryption) {
+        this(new DESKey(key), forEncryption);
+    }
+
+    /** Runs on the subkeys of an already expanded key; destroying the engine wipes the key. */
+    public DESEngine(DESKey key, boolean forEncryption) {
+        this.key = key;
+        this.subkeys = forEncryption ? key.encryptionSubkeys() : key.decryptionSubkeys();
+    }
+
+    @Override
+    public int getBlockSize() {
+        return BLOCK_SIZE;
+    }
+
+    @Override
+    public void processBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        putLong(out, outOff, cryptBlock(getLong(in, inOff), subkeys));
+    }
+
+    @Override
+    public void processBlock(ByteBuffer in, ByteBuffer out) {
+        if (in.remaining() < BLOCK_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        if (out.remaining() < BLOCK_SIZE) {
+            throw new BufferOverflowException();
+        }
+        long block = in.getLong();
+        if (in.order() == ByteOrder.LITTLE_ENDIAN) {
+            block = Long.reverseBytes(block);
+        }
+        long result = cryptBlock(block, subkeys);
+        out.putLong(out.order() == ByteOrder.LITTLE_ENDIAN ? Long.reverseBytes(result) : result);
+    }
+
+    /** Wipes the subkeys; the engine must not be used afterwards. */
+    @Override
+    public void destroy() {
+        key.destroy();
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return key.isDestroyed();
+    }
+
+    /** Bounded cache of engines for one direction, keyed by the 8 raw key bytes. */
+    public static KeyScheduleCache<DESEngine> cache(int maxEntries, boolean forEncryption) {
+        return new KeyScheduleCache<>(maxEntries, key -> new DESEngine(key, forEncryption));
+    }
+
+    // -------------- Key Scheduling --------------
+
+    /** Returns the 16 round subkeys (48 bits each, right-aligned) in encryption order. */
+    public static long[] generateSubkeys(long key) {
+        long key56 = permute(key, 8, PC1_TABLE);
+        int c = (int) (key56 >>> 28) & 0x0fffffff;
+        int d = (int) key56 & 0x0fffffff;
+
+        long[] subkeys = new long[16];
+        for (int i = 0; i < 16; i++) {
+            c = rotate28(c, SHIFTS[i]);
+            d = rotate28(d, SHIFTS[i]);
+            subkeys[i] = permute(((long) c << 28) | d, 7, PC2_TABLE);
+        }
+        return subkeys;
+    }
+
+    private static int rotate28(int v, int n) {
+        return ((v << n) | (v >>> (28 - n))) & 0x0fffffff;
+    }
+
+    // -------------- Block Function --------------
+
+    /** Runs IP, the 16 Feistel rounds with the given subkeys, and FP. */
+    public static long cryptBlock(long block, long[] subkeys) {
+        return cryptBlock(block, subkeys, null);
+    }
+
+    /**
+     * Same as {@link #cryptBlock(long, long[])}, reporting R[i]L[i] as a 64-digit
+     * binary string after every round to {@code trace} (may be {@code null}).
+     */
+    public static long cryptBlock(long block, long[] subkeys, TraceListener trace) {
+        return finalPermutation(rounds(initialPermutation(block), subkeys, trace));
+    }
+
+    static long initialPermutation(long block) {
+        return permute(block, 8, IP_TABLE);
+    }
+
+    static long finalPermutation(long preoutput) {
+        return permute(preoutput, 8, FP_TABLE);
+    }
+
+    /**
+     * The 16 Feistel rounds on L0||R0 (the output of IP), returning the swapped
+     * R16||L16 that goes into FP. Since FP undoes IP, a cascade of DES
+     * operations can feed this output straight into the next call.
+     */
+    static long rounds(long lr, long[] subkeys, TraceListener trace) {
+        int l = (int) (lr >>> 32);
+        int r = (int) lr;
+
+        for (int i = 0; i < 16; i++) {
+            int oldR = r;
+            r = l ^ fFunction(r, subkeys[i]);
+            l = oldR;
+            if (trace != null) {
+                trace.round(i + 1, "R[i]L[i]", binary64(((long) r << 32) | (l & 0xffffffffL)));
+            }
+        }
+
+        // Swap halves (R16 L16) before the final permutation
+        return ((long) r << 32) | (l & 0xffffffffL);
+    }
+
+    /**
+     * f(R, K) = P(S(E(R) xor K)) through the SP tables. E(R) is never built:
+     * S-box i reads bits 4i..4i+5 of R (1-based, wrapping from bit 32 to bit 1),
+     * which after rotating R right by one are six consecutive bits.
+     */
+    public static int fFunction(int r, long subkey) {
+        int rr = Integer.rotateRight(r, 1);
+        int out = 0;
+        for (int i = 0; i < 7; i++) {
+            out ^= SP[i][((rr >>> (26 - 4 * i)) ^ (int) (subkey >>> (42 - 6 * i))) & 0x3f];
+        }
+        // The last window wraps: R bits 28..32 followed by bit 1
+        return out ^ SP[7][(Integer.rotateLeft(r, 1) ^ (int) subkey) & 0x3f];
+    }
+
+    /**
+     * Applies a permutation through its byte-indexed table; {@code in} is
+     * {@code inBytes} bytes wide (right-aligned).
+     */
+    private static long permute(long in, int inBytes, long[][] table) {
+        long out = 0;
+        for (int i = 0; i < inBytes; i++) {
+            out |= table[i][(int) (in >>> (8 * (inBytes - 1 - i))) & 0xff];
+        }
+        return out;
+    }
+
+    /**
+     * Generic DES permutation: output bit i is input bit table[i], with bits
+     * numbered from 1 at the most significant end of an {@code inBits}-wide value.
+     * Only used to build the lookup tables.
+     */
+    static long permute(long in, int inBits, int[] table) {
+        long out = 0;
+        for (int pos : table) {
+            out = (out << 1) | ((in >>> (inBits - pos)) & 1);
+        }
+        return out;
+    }
+
+    /** Entry [i][b]: the permuted output of an input whose byte i is b and all else zero. */
+    private static long[][] permutationTable(int inBits, int[] perm) {
+        int inBytes = inBits / 8;
+        long[][] t = new long[inBytes][256];
+        for (int i = 0; i < inBytes; i++) {
+            int shift = 8 * (inBytes - 1 - i);
+            for (int b = 0; b < 256; b++) {
+                t[i][b] = permute((long) b << shift, inBits, perm);
+            }
+        }
+        return t;
+    }
+
+    private static String binary64(long v) {
+        String bits = Long.toBinaryString(v);
+        return "0".repeat(64 - bits.length()) + bits;
+    }
+
+    // -------------- Byte Helpers --------------
+    static long getLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (b[off + i] & 0xff);
+        }
+        return v;
+    }
+
+    static void putLong(byte[] b, int off, long v) {
+        for (int i = 7; i >= 0; i--) {
+            b[off + i] = (byte) v;
+            v >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package DES;
+
+import util.KeyScheduleCache;
+
+import javax.security.auth.Destroyable;
+import java.util.Arrays;
+
+/**
+ * Expanded DES key.
+ * <p>
+ * The sixteen 48-bit round subkeys are generated once, in encryption order and
+ * reversed for decryption, so block and text helpers reuse them for every block
+ * instead of re-running {@link DES#generateRoundKeys} per block. The key is safe
+ * to share between threads until it is destroyed: {@link #destroy()} wipes both
+ * orders, including under any thread still using them.
+ */
+public final class DESKey implements Destroyable {
+
+    private final long[] encSubkeys; // K1..K16
+    private final long[] decSubkeys; // K16..K1
+    private volatile boolean destroyed;
+
+    /**
+     * @param key 8 key bytes (parity bits are ignored)
+     */
+    public DESKey(byte[] key) {
+        if (key.length != DESEngine.BLOCK_SIZE) {
+            throw new IllegalArgumentException("DES key must be 8 bytes.");
+        }
+        this.encSubkeys = DESEngine.generateSubkeys(DESEngine.getLong(key, 0));
+        this.decSubkeys = new long[16];
+        for (int i = 0; i < 16; i++) {
+            decSubkeys[i] = encSubkeys[15 - i];
+        }
+    }
+
+    /** Convenience: builds a key from 16 hex digits. */
+    public static DESKey fromHex(String keyHex) {
+        if (keyHex.length() != 2 * DESEngine.BLOCK_SIZE) {
+            throw new IllegalArgumentException("DES key must be 16 hex digits.");
+        }
+        byte[] raw = new byte[DESEngine.BLOCK_SIZE];
+        DESEngine.putLong(raw, 0, Long.parseUnsignedLong(keyHex, 16));
+        return new DESKey(raw);
+    }
+
+    /**
+     * Bounded cache of expanded keys for workloads with many keys, e.g.
+     * {@code cache.withKey(raw, k -> DES.encryptText(text, k))}.
+     */
+    public static KeyScheduleCache<DESKey> cache(int maxEntries) {
+        return new KeyScheduleCache<>(maxEntries, DESKey::new);
+    }
+
+    // ---------- Block Operations ----------
+    public long encryptBlock(long block) {
+        return DESEngine.cryptBlock(block, encSubkeys);
+    }
+
+    public long decryptBlock(long block) {
+        return DESEngine.cryptBlock(block, decSubkeys);
+    }
+
+    /** Wipes both subkey orders; the key must not be used afterwards. */
+    @Override
+    public void destroy() {
+        Arrays.fill(encSubkeys, 0L);
+        Arrays.fill(decSubkeys, 0L);
+        destroyed = true;
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    // Subkeys are handed to the engines in this package only; never exposed.
+    long[] encryptionSubkeys() {
+        return encSubkeys;
+    }
+
+    long[] decryptionSubkeys() {
+        return decSubkeys;
+    }
+}
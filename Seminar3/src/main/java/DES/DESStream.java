@@ -0,0 +1,133 @@
+package DES;
+
+import util.BlockCipher;
+import util.BlockStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Supplier;
+
+import static DES.DESEngine.BLOCK_SIZE;
+import static DES.DESEngine.putLong;
+
+/**
+ * Streaming DES/3DES over {@link InputStream}/{@link OutputStream} with one
+ * fixed, reusable buffer.
+ * <p>
+ * A thin adapter over {@link BlockStream}: the CBC chaining block and the CTR
+ * block counter are carried from one buffer to the next, and PKCS#7 padding (CBC
+ * only) is added to or stripped from the very last block. With a
+ * {@link DESEngine} or {@link TripleDESEngine}, each CTR buffer is split across
+ * cores by {@link DESCTR}; any other {@link BlockCipher} runs serially.
+ * The output equals {@link DESCBC} and {@link DESCTR} on the whole message.
+ */
+public final class DESStream {
+
+    public enum Mode { CBC, CTR }
+
+    /** Default buffer size in bytes; always a multiple of the block size. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /** CTR work unit within one buffer, so a default buffer is split four ways. */
+    private static final int PARALLEL_THRESHOLD = 16 * 1024;
+
+    private DESStream() {
+    } // static helpers only
+
+    // ---------- Raw Keys ----------
+
+    /**
+     * Encrypts everything from {@code in} to {@code out}; returns the bytes written.
+     *
+     * @param key 8 (DES), 16 or 24 (3DES) bytes
+     */
+    public static long encrypt(InputStream in, OutputStream out, byte[] key, Mode mode, byte[] iv)
+            throws IOException {
+        BlockCipher cipher = DES.engine(key, true);
+        try {
+            return encrypt(in, out, cipher, mode, iv, DEFAULT_BUFFER_SIZE);
+        } finally {
+            DES.destroy(cipher);
+        }
+    }
+
+    /** Decrypts everything from {@code in} to {@code out}; returns the bytes written. */
+    public static long decrypt(InputStream in, OutputStream out, byte[] key, Mode mode, byte[] iv)
+            throws IOException {
+        BlockCipher cipher = DES.engine(key, mode == Mode.CTR);
+        try {
+            return decrypt(in, out, cipher, mode, iv, DEFAULT_BUFFER_SIZE);
+        } finally {
+            DES.destroy(cipher);
+        }
+    }
+
+    // ---------- Expanded Ciphers ----------
+
+    /** {@code cipher} must be built for encryption. */
+    public static long encrypt(InputStream in, OutputStream out, BlockCipher cipher, Mode mode, byte[] iv,
+                               int bufferSize) throws IOException {
+        return BlockStream.encrypt(in::read, out::write, new BlockState(cipher, mode, iv), BLOCK_SIZE,
+                mode == Mode.CBC, bufferSize);
+    }
+
+    /** {@code cipher} must be built for decryption in CBC mode and for encryption in CTR mode. */
+    public static long decrypt(InputStream in, OutputStream out, BlockCipher cipher, Mode mode, byte[] iv,
+                               int bufferSize) throws IOException {
+        return BlockStream.decrypt(in::read, out::write, new BlockState(cipher, mode, iv), BLOCK_SIZE,
+                mode == Mode.CBC, bufferSize);
+    }
+
+    /**
+     * Chaining state carried between buffers: the previous ciphertext block for
+     * CBC and the next block index for CTR.
+     */
+    private static final class BlockState implements BlockStream.Chain {
+        private final BlockCipher cipher;
+        private final Supplier<BlockCipher> shared; // null unless CTR may fork
+        private final Mode mode;
+        private final long iv;
+        private final byte[] counter = new byte[BLOCK_SIZE];
+        private long chain;
+        private long blockIndex;
+
+        BlockState(BlockCipher cipher, Mode mode, byte[] iv) {
+            DES.checkIV(iv);
+            DES.checkCipher(cipher);
+            this.cipher = cipher;
+            this.shared = DES.shareable(cipher) ? () -> cipher : null;
+            this.mode = mode;
+            this.iv = DESEngine.getLong(iv, 0);
+            this.chain = this.iv;
+        }
+
+        @Override
+        public void encrypt(byte[] buf, int len) {
+            if (mode == Mode.CBC) {
+                chain = DESCBC.encryptBlocks(buf, 0, len, cipher, chain);
+            } else {
+                ctr(buf, len);
+            }
+        }
+
+        @Override
+        public void decrypt(byte[] buf, int len) {
+            if (mode == Mode.CBC) {
+                chain = DESCBC.decryptBlocks(buf, 0, len, cipher, chain);
+            } else {
+                ctr(buf, len);
+            }
+        }
+
+        private void ctr(byte[] buf, int len) {
+            if (shared != null) {
+                putLong(counter, 0, iv + blockIndex);
+                DESCTR.crypt(buf, 0, len, buf, 0, shared, counter, PARALLEL_THRESHOLD);
+            } else {
+                DESCTR.cryptRange(cipher, iv + blockIndex, buf, 0, len, buf, 0);
+            }
+            blockIndex += len / BLOCK_SIZE;
+        }
+    }
+}
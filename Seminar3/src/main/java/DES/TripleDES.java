@@ -1,5 +1,8 @@
 package DES;
 
+import util.ConsoleTraceListener;
+import util.TraceListener;
+
 public class TripleDES {
 
     /**
@@ -7,9 +10,18 @@ public class TripleDES {
      * 3DES encryption = DES_encrypt(key1, DES_decrypt(key2, DES_encrypt(key3, plaintext))).
      */
     public static String encryptBlock(String plainHex, String key1, String key2, String key3) {
-        String step1 = DES.encryptBlock(plainHex, key1);
+        return encryptBlock(plainHex, key1, key2, key3, null);
+    }
+
+    /**
+     * Same as {@link #encryptBlock(String, String, String, String)}, reporting the
+     * rounds of both DES encryptions to {@code trace} (may be {@code null}).
+     */
+    public static String encryptBlock(String plainHex, String key1, String key2, String key3,
+                                      TraceListener trace) {
+        String step1 = DES.encryptBlock(plainHex, key1, trace);
         String step2 = DES.decryptBlock(step1, key2);
-        return DES.encryptBlock(step2, key3);
+        return DES.encryptBlock(step2, key3, trace);
     }
 
     /**
@@ -22,20 +34,63 @@ public class TripleDES {
         return DES.decryptBlock(step2, key1);
     }
 
+    // -------------- Expanded-Key Block Operations --------------
+    public static String encryptBlock(String plainHex, DESKey key1, DESKey key2, DESKey key3) {
+        return encryptBlock(plainHex, key1, key2, key3, null);
+    }
+
+    /**
+     * Without a trace this runs the fused {@link TripleDESEngine} pipeline; with
+     * one, the three DES stages run separately so each encryption reports its rounds.
+     */
+    public static String encryptBlock(String plainHex, DESKey key1, DESKey key2, DESKey key3,
+                                      TraceListener trace) {
+        long block = DES.parseBlock(plainHex);
+        if (trace == null) {
+            return DES.toHex(TripleDESEngine.cryptBlock(block, key1.encryptionSubkeys(),
+                    key2.decryptionSubkeys(), key3.encryptionSubkeys()));
+        }
+        block = DES.encrypt(block, key1, trace);
+        block = key2.decryptBlock(block);
+        return DES.toHex(DES.encrypt(block, key3, trace));
+    }
+
+    public static String decryptBlock(String cipherHex, DESKey key1, DESKey key2, DESKey key3) {
+        return DES.toHex(TripleDESEngine.cryptBlock(DES.parseBlock(cipherHex), key3.decryptionSubkeys(),
+                key2.encryptionSubkeys(), key1.decryptionSubkeys()));
+    }
+
     /**
      * Encrypts an arbitrary text using Triple DES.
      * The text is converted into ASCII hex, zero-padded to a multiple of 16 hex digits (8 bytes),
      * then segmented into 64-bit blocks, and each is processed using encryptBlock(...).
      */
     public static String encryptText(String text, String key1, String key2, String key3) {
+        return encryptText(text, key1, key2, key3, null);
+    }
+
+    public static String encryptText(String text, String key1, String key2, String key3, TraceListener trace) {
+        return encryptText(text, DESKey.fromHex(key1), DESKey.fromHex(key2), DESKey.fromHex(key3), trace);
+    }
+
+    public static String encryptText(String text, DESKey key1, DESKey key2, DESKey key3) {
+        return encryptText(text, key1, key2, key3, null);
+    }
+
+    public static String encryptText(String text, DESKey key1, DESKey key2, DESKey key3,
+                                     TraceListener trace) {
         String asciiHex = DES.textToHex(text);
         asciiHex = DES.padHex(asciiHex);
-        System.out.println("[INFO] Text as hex: " + asciiHex);
+        if (trace != null) {
+            trace.step("[INFO] Text as hex", asciiHex);
+        }
         StringBuilder cipherBuilder = new StringBuilder();
         for (int i = 0; i < asciiHex.length(); i += 16) {
             String block = asciiHex.substring(i, i + 16);
-            System.out.println("\n--- Encrypting block: " + block + " ---");
-            String cipherBlock = encryptBlock(block, key1, key2, key3);
+            if (trace != null) {
+                trace.beginBlock(i / 16 + 1, block);
+            }
+            String cipherBlock = encryptBlock(block, key1, key2, key3, trace);
             cipherBuilder.append(cipherBlock);
         }
         return cipherBuilder.toString();
@@ -45,6 +100,10 @@ public class TripleDES {
      * Decrypts the 3DES ciphertext (hex) and converts it back into the original text.
      */
     public static String decryptText(String cipherTextHex, String key1, String key2, String key3) {
+        return decryptText(cipherTextHex, DESKey.fromHex(key1), DESKey.fromHex(key2), DESKey.fromHex(key3));
+    }
+
+    public static String decryptText(String cipherTextHex, DESKey key1, DESKey key2, DESKey key3) {
         StringBuilder plainHexBuilder = new StringBuilder();
         for (int i = 0; i < cipherTextHex.length(); i += 16) {
             String block = cipherTextHex.substring(i, i + 16);
@@ -65,7 +124,7 @@ public class TripleDES {
         String plaintext = "Triple DES works!";
         System.out.println("=== Triple DES Encryption ===");
         System.out.println("Plaintext: " + plaintext);
-        String cipherTextHex = encryptText(plaintext, key1, key2, key3);
+        String cipherTextHex = encryptText(plaintext, key1, key2, key3, new ConsoleTraceListener());
         System.out.println("\n[FINAL] Encrypted Text (hex): " + cipherTextHex);
 
         System.out.println("\n=== Triple DES Decryption ===");
@@ -0,0 +1,134 @@
+package DES;
+
+import util.BlockCipher;
+import util.KeyScheduleCache;
+
+import javax.security.auth.Destroyable;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static DES.DESEngine.BLOCK_SIZE;
+import static DES.DESEngine.getLong;
+import static DES.DESEngine.putLong;
+
+/**
+ * Allocation-free Triple-DES (EDE) block cipher on {@code long} blocks.
+ * <p>
+ * Encryption is E(K3, D(K2, E(K1, P))), the same cascade as
+ * {@link TripleDES#encryptBlock} and the JDK's "DESede". Every DES stage ends
+ * with FP and the next starts with IP, which cancel, so the engine runs IP
+ * once, 48 Feistel rounds through {@link DESEngine}'s SP tables, and FP once.
+ * The three subkey schedules come from {@link DESKey}s expanded up front.
+ * <p>
+ * Keying options: a 24-byte key is K1 || K2 || K3, a 16-byte key is K1 || K2
+ * with K3 = K1. Unlike {@link BlockCipher}s in general, an engine keeps no
+ * per-call state, so one instance can be shared between threads until it is
+ * destroyed.
+ */
+public final class TripleDESEngine implements BlockCipher, Destroyable {
+
+    private final DESKey key1, key2, key3;
+    private final long[] first, second, third; // subkeys of the three stages
+
+    /**
+     * @param key           16 (two-key) or 24 (three-key) bytes, parity bits ignored
+     * @param forEncryption true to encrypt, false to decrypt
+     */
+    public TripleDESEngine(byte[] key, boolean forEncryption) {
+        this(desKey(key, 0), desKey(key, 8),
+                key.length == 16 ? null : desKey(key, 16), forEncryption);
+    }
+
+    /**
+     * Runs on already expanded keys, sharing their subkeys; destroying the
+     * engine wipes them. A {@code null} {@code key3} selects two-key 3DES.
+     */
+    public TripleDESEngine(DESKey key1, DESKey key2, DESKey key3, boolean forEncryption) {
+        this.key1 = key1;
+        this.key2 = key2;
+        this.key3 = key3 == null ? key1 : key3;
+        if (forEncryption) {
+            first = this.key1.encryptionSubkeys();
+            second = this.key2.decryptionSubkeys();
+            third = this.key3.encryptionSubkeys();
+        } else {
+            first = this.key3.decryptionSubkeys();
+            second = this.key2.encryptionSubkeys();
+            third = this.key1.decryptionSubkeys();
+        }
+    }
+
+    private static DESKey desKey(byte[] key, int off) {
+        if (key.length != 16 && key.length != 24) {
+            throw new IllegalArgumentException("Triple-DES key must be 16 or 24 bytes.");
+        }
+        byte[] part = new byte[BLOCK_SIZE];
+        System.arraycopy(key, off, part, 0, BLOCK_SIZE);
+        DESKey k = new DESKey(part);
+        Arrays.fill(part, (byte) 0);
+        return k;
+    }
+
+    @Override
+    public int getBlockSize() {
+        return BLOCK_SIZE;
+    }
+
+    /** Processes one block held in a {@code long} (big-endian, as on the wire). */
+    public long processBlock(long block) {
+        return cryptBlock(block, first, second, third);
+    }
+
+    @Override
+    public void processBlock(byte[] in, int inOff, byte[] out, int outOff) {
+        putLong(out, outOff, cryptBlock(getLong(in, inOff), first, second, third));
+    }
+
+    @Override
+    public void processBlock(ByteBuffer in, ByteBuffer out) {
+        if (in.remaining() < BLOCK_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        if (out.remaining() < BLOCK_SIZE) {
+            throw new BufferOverflowException();
+        }
+        long block = in.getLong();
+        if (in.order() == ByteOrder.LITTLE_ENDIAN) {
+            block = Long.reverseBytes(block);
+        }
+        long result = cryptBlock(block, first, second, third);
+        out.putLong(out.order() == ByteOrder.LITTLE_ENDIAN ? Long.reverseBytes(result) : result);
+    }
+
+    /** Wipes all three keys; the engine must not be used afterwards. */
+    @Override
+    public void destroy() {
+        key1.destroy();
+        key2.destroy();
+        key3.destroy();
+    }
+
+    @Override
+    public boolean isDestroyed() {
+        return key1.isDestroyed();
+    }
+
+    /** Bounded cache of engines for one direction, keyed by the 16 or 24 raw key bytes. */
+    public static KeyScheduleCache<TripleDESEngine> cache(int maxEntries, boolean forEncryption) {
+        return new KeyScheduleCache<>(maxEntries, key -> new TripleDESEngine(key, forEncryption));
+    }
+
+    // -------------- Block Function --------------
+
+    /** IP, 16 rounds with each of the three subkey schedules in turn, FP. */
+    public static long cryptBlock(long block, long[] first, long[] second, long[] third) {
+        long lr = DESEngine.initialPermutation(block);
+        lr = DESEngine.rounds(lr, first, null);
+        lr = DESEngine.rounds(lr, second, null);
+        lr = DESEngine.rounds(lr, third, null);
+        return DESEngine.finalPermutation(lr);
+    }
+}
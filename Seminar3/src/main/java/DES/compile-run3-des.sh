@@ -1,6 +1,6 @@
 #!/bin/bash
 echo "Compiling DES.java..."
-javac DES.java
+javac -cp .. DES.java
 if [ $? -ne 0 ]; then
     echo "Error: Failed to compile DES.java."
     read -n1 -s -r -p "Press any key to continue..."
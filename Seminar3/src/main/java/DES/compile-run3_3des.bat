@@ -1,6 +1,6 @@
 @echo off
 echo Compiling TripleDES.java...
-javac TripleDES.java
+javac -cp .. TripleDES.java
 if %errorlevel% neq 0 (
     echo Error: Failed to compile TripleDES.java.
     pause
@@ -1,6 +1,6 @@
 @echo off
 echo Compiling DES.java...
-javac DES.java
+javac -cp .. DES.java
 if %errorlevel% neq 0 (
     echo Error: Failed to compile DES.java.
     pause
@@ -0,0 +1,31 @@
+package util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A block cipher bound to one key and one direction (encrypt or decrypt).
+ * <p>
+ * Implementations read and write caller-owned buffers at the given offsets and
+ * allocate nothing per block, so mode loops can run without creating garbage.
+ * Instances may keep scratch space and are not thread-safe unless the
+ * implementation documents otherwise; code written against this interface
+ * should create one per thread.
+ */
+public interface BlockCipher {
+
+    /** Block size in bytes (16 for AES, 8 for DES). */
+    int getBlockSize();
+
+    /**
+     * Processes one block from {@code in[inOff..]} into {@code out[outOff..]}.
+     * The two ranges may be the same (in-place).
+     */
+    void processBlock(byte[] in, int inOff, byte[] out, int outOff);
+
+    /**
+     * Processes one block from {@code in} into {@code out}, advancing both
+     * positions by one block. Works for heap and direct buffers; a
+     * {@code MemorySegment} can be passed through {@code segment.asByteBuffer()}.
+     */
+    void processBlock(ByteBuffer in, ByteBuffer out);
+}
@@ -0,0 +1,126 @@
+package util;
+
+import java.io.IOException;
+
+/**
+ * Buffer-at-a-time driver shared by the streaming block-cipher modes.
+ * <p>
+ * Data is read into one fixed, reusable buffer and processed in place by a
+ * per-mode {@link Chain}, which carries its state (a CBC chaining block, a CTR
+ * counter) from one buffer to the next. For padded modes PKCS#7 padding is only
+ * added to, or checked and stripped from, the very last block: decryption holds
+ * the final block of each full buffer back until it knows whether more data
+ * follows. Memory use stays constant however large the input is.
+ */
+public final class BlockStream {
+
+    @FunctionalInterface
+    public interface Source {
+        /** Same contract as {@link java.io.InputStream#read(byte[], int, int)}. */
+        int read(byte[] b, int off, int len) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Sink {
+        void write(byte[] b, int off, int len) throws IOException;
+    }
+
+    /** Chaining state of one mode, advanced as buffers go through it. */
+    public interface Chain {
+        /**
+         * Encrypts {@code buf[0..len)} in place; {@code len} is a multiple of the
+         * block size except for the last chunk of an unpadded mode.
+         */
+        void encrypt(byte[] buf, int len);
+
+        void decrypt(byte[] buf, int len);
+    }
+
+    private BlockStream() {
+    } // static helpers only
+
+    /**
+     * Encrypts everything from {@code in} to {@code out}; returns the bytes written.
+     *
+     * @param padded     true to append PKCS#7 padding (block modes), false for stream modes
+     * @param bufferSize multiple of {@code blockSize}, at least two blocks
+     */
+    public static long encrypt(Source in, Sink out, Chain chain, int blockSize, boolean padded,
+                               int bufferSize) throws IOException {
+        int size = checkBufferSize(bufferSize, blockSize);
+        byte[] buf = new byte[size + blockSize]; // room for one padding block
+        long total = 0;
+
+        while (true) {
+            int len = fill(in, buf, 0, size);
+            if (len < size) {
+                // Final chunk: pad (block modes) and flush
+                if (padded) {
+                    len = PKCS7.pad(buf, len, blockSize);
+                }
+                chain.encrypt(buf, len);
+                out.write(buf, 0, len);
+                return total + len;
+            }
+            chain.encrypt(buf, len);
+            out.write(buf, 0, len);
+            total += len;
+        }
+    }
+
+    /** Decrypts everything from {@code in} to {@code out}; returns the bytes written. */
+    public static long decrypt(Source in, Sink out, Chain chain, int blockSize, boolean padded,
+                               int bufferSize) throws IOException {
+        int size = checkBufferSize(bufferSize, blockSize);
+        byte[] buf = new byte[size];
+        long total = 0;
+        int held = 0; // ciphertext block carried over so the padding is seen last
+
+        while (true) {
+            int len = held + fill(in, buf, held, size - held);
+            if (len < size) {
+                if (!padded) {
+                    chain.decrypt(buf, len);
+                    out.write(buf, 0, len);
+                    return total + len;
+                }
+                if (len == 0 || len % blockSize != 0) {
+                    throw new IllegalArgumentException("Ciphertext length must be multiple of block size.");
+                }
+                chain.decrypt(buf, len);
+                int plainLen = len - PKCS7.checkPadding(buf, len, blockSize);
+                out.write(buf, 0, plainLen);
+                return total + plainLen;
+            }
+            // Full buffer: keep the last block back in case the stream ends here
+            int ready = padded ? len - blockSize : len;
+            chain.decrypt(buf, ready);
+            out.write(buf, 0, ready);
+            total += ready;
+            held = len - ready;
+            System.arraycopy(buf, ready, buf, 0, held);
+        }
+    }
+
+    /** Reads until {@code len} bytes arrived or the source is exhausted. */
+    private static int fill(Source in, byte[] buf, int off, int len) throws IOException {
+        int total = 0;
+        while (total < len) {
+            int n = in.read(buf, off + total, len - total);
+            if (n < 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+
+    private static int checkBufferSize(int size, int blockSize) {
+        // Decryption holds one block back, so the buffer needs room for at least two
+        if (size < 2 * blockSize || size % blockSize != 0) {
+            throw new IllegalArgumentException("Buffer size must be a multiple of " + blockSize
+                    + " and at least " + 2 * blockSize + ".");
+        }
+        return size;
+    }
+}
@@ -0,0 +1,35 @@
+package util;
+
+import java.io.PrintStream;
+
+/**
+ * Prints every traced block, step and round, as the seminar demos do.
+ */
+public class ConsoleTraceListener implements TraceListener {
+
+    private final PrintStream out;
+
+    public ConsoleTraceListener() {
+        this(System.out);
+    }
+
+    public ConsoleTraceListener(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void beginBlock(int index, String blockHex) {
+        out.println("\n--- Processing block " + index + ": " + blockHex + " ---");
+    }
+
+    @Override
+    public void step(String label, String value) {
+        out.println(label + ": " + value);
+    }
+
+    @Override
+    public void round(int round, String label, String value) {
+        out.println("Round " + round + ":");
+        out.println(label + ": " + value);
+    }
+}
@@ -0,0 +1,292 @@
+package util;
+
+import javax.security.auth.DestroyFailedException;
+import javax.security.auth.Destroyable;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe cache of expanded key schedules, keyed by the raw key bytes.
+ * <p>
+ * Entries are spread over up to 16 independently locked segments, each kept in
+ * least-recently-used order, so the cache as a whole is approximately LRU and
+ * holds at most about {@code maxEntries} schedules. A lookup compares the full
+ * key (in constant time), never just a hash. Segments and buckets are chosen by
+ * SipHash-2-4 under a random per-cache key, so where an entry lands says nothing
+ * directly about the key material. A miss expands the schedule outside the
+ * segment lock, so it never stalls other threads on the same segment.
+ * <p>
+ * Schedules are only handed out for the duration of {@link #withKey}. When an
+ * entry is evicted its schedule and its copy of the key are wiped through
+ * {@link Destroyable#destroy()} as soon as the last caller using it returns, so
+ * a schedule is never zeroed under a running operation.
+ *
+ * @param <V> the schedule type, e.g. {@code AESKey} or {@code DESEngine}
+ */
+public final class KeyScheduleCache<V extends Destroyable> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final SecureRandom SALTS = new SecureRandom();
+
+    private final Function<byte[], ? extends V> expander;
+    private final Segment<V>[] segments;
+    private final int segmentMask;
+    private final long salt0 = SALTS.nextLong(), salt1 = SALTS.nextLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries upper bound on cached schedules (at least 1)
+     * @param expander   builds a schedule from raw key bytes, e.g. {@code AESKey::new}
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public KeyScheduleCache(int maxEntries, Function<byte[], ? extends V> expander) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1.");
+        }
+        this.expander = expander;
+        int count = Integer.highestOneBit(Math.min(MAX_SEGMENTS, maxEntries));
+        int perSegment = (maxEntries + count - 1) / count;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(perSegment, this);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    /**
+     * Runs {@code op} with the schedule for {@code key}, expanding and caching it
+     * on a miss. The schedule must not be kept after {@code op} returns.
+     */
+    public <R> R withKey(byte[] key, Function<? super V, ? extends R> op) {
+        Fingerprint lookup = new Fingerprint(key, fingerprint(key));
+        Entry<V> entry = segments[lookup.hash & segmentMask].acquire(lookup);
+        try {
+            return op.apply(entry.value);
+        } finally {
+            entry.release();
+        }
+    }
+
+    // ---------- Statistics ----------
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int n = 0;
+        for (Segment<V> s : segments) {
+            n += s.size();
+        }
+        return n;
+    }
+
+    /** Evicts (and wipes) every entry. */
+    public void clear() {
+        for (Segment<V> s : segments) {
+            s.clear();
+        }
+    }
+
+    // ---------- Internals ----------
+
+    /** SipHash-2-4 of the key under this cache's salt, folded to 32 bits. */
+    private int fingerprint(byte[] key) {
+        long h = sipHash24(salt0, salt1, key);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static long sipHash24(long k0, long k1, byte[] data) {
+        long[] v = {
+                k0 ^ 0x736f6d6570736575L, k1 ^ 0x646f72616e646f6dL,
+                k0 ^ 0x6c7967656e657261L, k1 ^ 0x7465646279746573L};
+        int full = data.length & ~7;
+        for (int off = 0; off < full; off += 8) {
+            compress(v, littleEndian(data, off, 8));
+        }
+        // Last word: the remaining bytes, with the length in the top byte
+        compress(v, ((long) data.length << 56) | littleEndian(data, full, data.length - full));
+        v[2] ^= 0xff;
+        for (int i = 0; i < 4; i++) {
+            sipRound(v);
+        }
+        return v[0] ^ v[1] ^ v[2] ^ v[3];
+    }
+
+    private static void compress(long[] v, long m) {
+        v[3] ^= m;
+        sipRound(v);
+        sipRound(v);
+        v[0] ^= m;
+    }
+
+    private static void sipRound(long[] v) {
+        v[0] += v[1];
+        v[1] = Long.rotateLeft(v[1], 13) ^ v[0];
+        v[0] = Long.rotateLeft(v[0], 32);
+        v[2] += v[3];
+        v[3] = Long.rotateLeft(v[3], 16) ^ v[2];
+        v[0] += v[3];
+        v[3] = Long.rotateLeft(v[3], 21) ^ v[0];
+        v[2] += v[1];
+        v[1] = Long.rotateLeft(v[1], 17) ^ v[2];
+        v[2] = Long.rotateLeft(v[2], 32);
+    }
+
+    private static long littleEndian(byte[] b, int off, int len) {
+        long m = 0;
+        for (int i = len - 1; i >= 0; i--) {
+            m = (m << 8) | (b[off + i] & 0xff);
+        }
+        return m;
+    }
+
+    /** Raw key bytes plus their salted hash; owned copies are wiped on eviction. */
+    private static final class Fingerprint {
+        final byte[] key;
+        final int hash;
+
+        Fingerprint(byte[] key, int hash) {
+            this.key = key;
+            this.hash = hash;
+        }
+
+        Fingerprint copy() {
+            return new Fingerprint(key.clone(), hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Fingerprint f && MessageDigest.isEqual(key, f.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry<V extends Destroyable> {
+        final Fingerprint fingerprint;
+        final V value;
+        final AtomicInteger users = new AtomicInteger();
+        final AtomicBoolean wiped = new AtomicBoolean();
+        volatile boolean evicted;
+
+        Entry(Fingerprint fingerprint, V value) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+        }
+
+        void release() {
+            if (users.decrementAndGet() == 0 && evicted) {
+                wipe();
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            if (users.get() == 0) {
+                wipe();
+            }
+        }
+
+        // Both the last user and the evicting thread may get here; only one wipes
+        private void wipe() {
+            if (!wiped.compareAndSet(false, true)) {
+                return;
+            }
+            Arrays.fill(fingerprint.key, (byte) 0);
+            try {
+                value.destroy();
+            } catch (DestroyFailedException e) {
+                // Nothing more can be done; the entry is unreachable from the cache
+            }
+        }
+    }
+
+    private static final class Segment<V extends Destroyable> {
+        private final KeyScheduleCache<V> owner;
+        private final LinkedHashMap<Fingerprint, Entry<V>> map;
+
+        Segment(int capacity, KeyScheduleCache<V> owner) {
+            this.owner = owner;
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Fingerprint, Entry<V>> eldest) {
+                    if (size() <= capacity) {
+                        return false;
+                    }
+                    owner.evictions.increment();
+                    eldest.getValue().evict();
+                    return true;
+                }
+            };
+        }
+
+        Entry<V> acquire(Fingerprint lookup) {
+            Entry<V> entry = lookupAndUse(lookup);
+            if (entry != null) {
+                return entry;
+            }
+            // Expand without holding the lock, then insert unless another thread won the race
+            Entry<V> fresh = new Entry<>(lookup.copy(), owner.expander.apply(lookup.key));
+            synchronized (this) {
+                entry = map.get(lookup);
+                if (entry == null) {
+                    owner.misses.increment();
+                    map.put(fresh.fingerprint, fresh);
+                    entry = fresh;
+                } else {
+                    owner.hits.increment();
+                }
+                entry.users.incrementAndGet();
+            }
+            if (entry != fresh) {
+                fresh.evict(); // never published, so this wipes it at once
+            }
+            return entry;
+        }
+
+        private synchronized Entry<V> lookupAndUse(Fingerprint lookup) {
+            Entry<V> entry = map.get(lookup);
+            if (entry != null) {
+                owner.hits.increment();
+                // Counted before the lock is released, so eviction cannot wipe it under the caller
+                entry.users.incrementAndGet();
+            }
+            return entry;
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized void clear() {
+            for (Iterator<Entry<V>> it = map.values().iterator(); it.hasNext(); ) {
+                owner.evictions.increment();
+                it.next().evict();
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * PKCS#7 padding for any block size up to 255 bytes: 1..blockSize bytes, each
+ * holding the padding length, so a whole block is added to aligned input.
+ */
+public final class PKCS7 {
+
+    private PKCS7() {
+    } // static helpers only
+
+    /** Returns a padded copy of {@code input}. */
+    public static byte[] pad(byte[] input, int blockSize) {
+        byte[] out = Arrays.copyOf(input, input.length + padLength(input.length, blockSize));
+        pad(out, input.length, blockSize);
+        return out;
+    }
+
+    /**
+     * Writes the padding after {@code buf[0..len)}; {@code buf} must have room for
+     * one more block. Returns the padded length.
+     */
+    public static int pad(byte[] buf, int len, int blockSize) {
+        int padLen = padLength(len, blockSize);
+        Arrays.fill(buf, len, len + padLen, (byte) padLen);
+        return len + padLen;
+    }
+
+    /**
+     * Checks every pad byte at the end of the decrypted {@code buf[0..len)} and
+     * returns the padding length.
+     */
+    public static int checkPadding(byte[] buf, int len, int blockSize) {
+        int padLen = buf[len - 1] & 0xff;
+        if (padLen < 1 || padLen > blockSize) {
+            throw new IllegalArgumentException("Invalid PKCS#7 padding.");
+        }
+        for (int i = len - padLen; i < len; i++) {
+            if ((buf[i] & 0xff) != padLen) {
+                throw new IllegalArgumentException("Invalid PKCS#7 padding.");
+            }
+        }
+        return padLen;
+    }
+
+    private static int padLength(int len, int blockSize) {
+        return blockSize - (len % blockSize);
+    }
+}
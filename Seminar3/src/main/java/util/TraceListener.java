@@ -0,0 +1,21 @@
+package util;
+
+/**
+ * Observer for the step-by-step output of the teaching ciphers.
+ * <p>
+ * Methods that accept a listener only build the traced values when one is
+ * installed; passing {@code null} skips all formatting, so the untraced path
+ * does no console I/O and no string work. {@link ConsoleTraceListener} prints
+ * the classic seminar output.
+ */
+public interface TraceListener {
+
+    /** Block {@code index} (1-based) of a multi-block operation is about to be processed. */
+    void beginBlock(int index, String blockHex);
+
+    /** An intermediate or final value, e.g. "Block after XOR with IV". */
+    void step(String label, String value);
+
+    /** Round {@code round} (1-based) of a block cipher finished with the given state. */
+    void round(int round, String label, String value);
+}
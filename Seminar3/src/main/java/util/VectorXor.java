@@ -0,0 +1,33 @@
+package util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel behind {@link Xor}. Only loaded when the
+ * {@code jdk.incubator.vector} module is present, so nothing else may refer to it.
+ */
+final class VectorXor {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private VectorXor() {
+    } // static helpers only
+
+    static int laneCount() {
+        return SPECIES.length();
+    }
+
+    static void xor(byte[] a, int aOff, byte[] b, int bOff, byte[] out, int outOff, int len) {
+        int step = SPECIES.length();
+        int bound = len - len % step;
+        int i = 0;
+        for (; i < bound; i += step) {
+            ByteVector va = ByteVector.fromArray(SPECIES, a, aOff + i);
+            ByteVector vb = ByteVector.fromArray(SPECIES, b, bOff + i);
+            va.lanewise(VectorOperators.XOR, vb).intoArray(out, outOff + i);
+        }
+        Xor.xorScalar(a, aOff + i, b, bOff + i, out, outOff + i, len - i);
+    }
+}
@@ -0,0 +1,68 @@
+package util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Wide XOR of byte ranges, used to apply keystream and chaining blocks.
+ * <p>
+ * When the JVM runs with {@code --add-modules jdk.incubator.vector} the bulk of
+ * the range goes through {@link VectorXor} in the widest lanes the CPU supports.
+ * Otherwise (the usual case) it falls back to eight bytes per step through a
+ * {@code long} view of the arrays, which is still far faster than a byte loop.
+ */
+public final class Xor {
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /** Below this many bytes the vector setup costs more than it saves. */
+    private static final int VECTOR_MIN_LENGTH = 64;
+
+    private static final boolean VECTORIZED = vectorAvailable();
+
+    private Xor() {
+    } // static helpers only
+
+    /** True if the incubator Vector API is resolved and used for long ranges. */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * out[outOff + i] = a[aOff + i] ^ b[bOff + i] for i in [0, len).
+     * {@code out} may be the same range as {@code a} or {@code b}.
+     */
+    public static void xor(byte[] a, int aOff, byte[] b, int bOff, byte[] out, int outOff, int len) {
+        if (VECTORIZED && len >= VECTOR_MIN_LENGTH) {
+            VectorXor.xor(a, aOff, b, bOff, out, outOff, len);
+        } else {
+            xorScalar(a, aOff, b, bOff, out, outOff, len);
+        }
+    }
+
+    /** The fallback used without the Vector API: eight bytes per step, then a byte tail. */
+    public static void xorScalar(byte[] a, int aOff, byte[] b, int bOff, byte[] out, int outOff, int len) {
+        int i = 0;
+        for (; i + 8 <= len; i += 8) {
+            long x = (long) LONGS.get(a, aOff + i) ^ (long) LONGS.get(b, bOff + i);
+            LONGS.set(out, outOff + i, x);
+        }
+        for (; i < len; i++) {
+            out[outOff + i] = (byte) (a[aOff + i] ^ b[bOff + i]);
+        }
+    }
+
+    private static boolean vectorAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            // Initialises VectorXor (and its species) once; any linkage problem means no vectors
+            return VectorXor.laneCount() > 8;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
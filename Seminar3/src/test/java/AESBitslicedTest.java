@@ -0,0 +1,105 @@
+import AES.AES;
+import AES.AESBitsliced;
+import AES.AESCTR;
+import AES.AESKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static AES.AES128.byteArrayToHexString;
+import static AES.AES128.hexStringToByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The bitsliced engine must agree with the table engine bit for bit.
+ */
+class AESBitslicedTest {
+
+    private static final Random RND = new Random(2009);
+
+    // --------------------------------------------------------------------- //
+    // 1. FIPS-197 Appendix C known answers                                  //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesFips197Vectors() {
+        byte[] pt = hexStringToByteArray("00112233445566778899aabbccddeeff");
+        assertKnownAnswer("000102030405060708090a0b0c0d0e0f", pt,
+                "69c4e0d86a7b0430d8cdb78070b4c55a");
+        assertKnownAnswer("000102030405060708090a0b0c0d0e0f1011121314151617", pt,
+                "dda97ca4864cdfe06eaf70a0ec0d7191");
+        assertKnownAnswer("000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f", pt,
+                "8ea2b7ca516745bfeafc49904b496089");
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. ECB over full and partial batches matches the table engine         //
+    // --------------------------------------------------------------------- //
+    @Test
+    void ecbMatchesTableEngine() {
+        for (int keyLen : new int[]{16, 24, 32}) {
+            AESKey key = new AESKey(randomBytes(keyLen));
+            AESBitsliced bs = new AESBitsliced(key);
+            for (int blocks : new int[]{1, 3, 8, 13, 24}) {
+                byte[] pt = randomBytes(blocks * 16);
+                byte[] expected = new byte[pt.length];
+                for (int i = 0; i < pt.length; i += 16) {
+                    key.encryptBlock(pt, i, expected, i);
+                }
+
+                byte[] ct = new byte[pt.length];
+                bs.encryptBlocks(pt, 0, ct, 0, blocks);
+                assertArrayEquals(expected, ct, keyLen + "-byte key, " + blocks + " blocks");
+
+                bs.decryptBlocks(ct, 0, ct, 0, blocks);
+                assertArrayEquals(pt, ct);
+            }
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. CTR matches AESCTR, including the carry into the high counter word //
+    // --------------------------------------------------------------------- //
+    @Test
+    void ctrMatchesTableEngine() {
+        AESKey key = new AESKey(randomBytes(16));
+        AESBitsliced bs = new AESBitsliced(key);
+        byte[] iv = hexStringToByteArray("0102030405060708fffffffffffffffa");
+        byte[] pt = randomBytes(16 * 20 + 5);
+
+        assertArrayEquals(AESCTR.crypt(pt, key, iv), bs.ctr(pt, iv));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. Selectable through the ECB/CTR helpers in AES                      //
+    // --------------------------------------------------------------------- //
+    @Test
+    void modeHelpersAcceptBitslicedEngine() {
+        AESKey key = new AESKey(randomBytes(32));
+        AESBitsliced bs = new AESBitsliced(key);
+        byte[] iv = randomBytes(16);
+        byte[] pt = randomBytes(77);
+
+        byte[] ecb = AES.encryptECB(pt, bs);
+        assertArrayEquals(AES.encryptECB(pt, key), ecb);
+        assertArrayEquals(pt, AES.decryptECB(ecb, bs));
+
+        byte[] ctr = AES.encryptCTR(pt, bs, iv);
+        assertArrayEquals(AES.encryptCTR(pt, key, iv), ctr);
+        assertArrayEquals(pt, AES.decryptCTR(ctr, bs, iv));
+    }
+
+    private static void assertKnownAnswer(String keyHex, byte[] pt, String expectedHex) {
+        AESBitsliced bs = new AESBitsliced(hexStringToByteArray(keyHex));
+        byte[] ct = new byte[16];
+        bs.encryptBlocks(pt, 0, ct, 0, 1);
+        assertEquals(expectedHex, byteArrayToHexString(ct));
+        bs.decryptBlocks(ct, 0, ct, 0, 1);
+        assertArrayEquals(pt, ct);
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
@@ -0,0 +1,89 @@
+import AES.AESCMAC;
+import AES.AESKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static AES.AES128.byteArrayToHexString;
+import static AES.AES128.hexStringToByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AESCMAC, checked against the RFC 4493 examples.
+ */
+class AESCMACTest {
+
+    private static final Random RND = new Random(4493);
+
+    private static final AESKey RFC_KEY = AESKey.fromHex("2b7e151628aed2a6abf7158809cf4f3c");
+    private static final byte[] RFC_MESSAGE = hexStringToByteArray(
+            "6bc1bee22e409f96e93d7e117393172a" + "ae2d8a571e03ac9c9eb76fac45af8e51"
+                    + "30c81c46a35ce411e5fbc1191a0a52ef" + "f69f2445df4f9b17ad2b417be66c3710");
+
+    // --------------------------------------------------------------------- //
+    // 1. RFC 4493 examples 1-4 (0, 16, 40 and 64 bytes)                     //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesRfcExamples() {
+        String[] tags = {
+                "bb1d6929e95937287fa37d129b756746",
+                "070a16b46b4d4144f79bdd9dd04a287c",
+                "dfa66747de9ae63030ca32611497c827",
+                "51f0bebf7e3b9d92fc49741779363cfe"};
+        int[] lengths = {0, 16, 40, 64};
+        for (int i = 0; i < lengths.length; i++) {
+            byte[] m = Arrays.copyOf(RFC_MESSAGE, lengths[i]);
+            assertEquals(tags[i], byteArrayToHexString(AESCMAC.mac(RFC_KEY, m)));
+            assertTrue(AESCMAC.verify(RFC_KEY, m, hexStringToByteArray(tags[i])));
+        }
+        byte[] bad = hexStringToByteArray(tags[3]);
+        bad[15] ^= 1;
+        assertFalse(AESCMAC.verify(RFC_KEY, RFC_MESSAGE, bad));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Odd-sized updates give the one-shot tag; doFinal resets            //
+    // --------------------------------------------------------------------- //
+    @Test
+    void incrementalMatchesOneShot() {
+        AESKey key = new AESKey(randomBytes(32));
+        AESCMAC mac = new AESCMAC(key);
+        for (int len : new int[]{1, 15, 16, 17, 32, 33, 1000}) {
+            byte[] m = randomBytes(len);
+            for (int pos = 0; pos < len; ) {
+                int n = Math.min(len - pos, RND.nextInt(20));
+                mac.update(m, pos, n);
+                pos += n;
+            }
+            assertArrayEquals(AESCMAC.mac(key, m), mac.doFinal());
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Bulk mode over mixed lengths                                       //
+    // --------------------------------------------------------------------- //
+    @Test
+    void macAllMatchesSingleMessages() {
+        AESKey key = new AESKey(randomBytes(16));
+        byte[][] messages = new byte[37][];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = randomBytes(RND.nextInt(100));
+        }
+        messages[3] = new byte[0];
+
+        AESCMAC mac = new AESCMAC(key);
+        mac.update(messages[0], 0, messages[0].length); // bulk must not disturb this
+        byte[][] tags = mac.macAll(messages);
+        for (int i = 0; i < messages.length; i++) {
+            assertArrayEquals(AESCMAC.mac(key, messages[i]), tags[i], "message " + i);
+        }
+        assertArrayEquals(tags[0], mac.doFinal());
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
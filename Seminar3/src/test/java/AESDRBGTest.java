@@ -0,0 +1,106 @@
+import AES.AESDRBG;
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static AES.AES128.byteArrayToHexString;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AESDRBG, fed from a fixed entropy source.
+ */
+class AESDRBGTest {
+
+    /** Entropy source that always returns 0x00, 0x01, ... and counts the calls. */
+    private static final class FixedEntropy extends SecureRandom {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void nextBytes(byte[] bytes) {
+            calls.incrementAndGet();
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) i;
+            }
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 1. Known answers for AES-256 CTR_DRBG without derivation function     //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesReferenceOutput() {
+        AESDRBG drbg = new AESDRBG(new FixedEntropy(), AESDRBG.DEFAULT_RESEED_INTERVAL);
+        SecureRandom rng = wrap(drbg);
+
+        byte[] first = new byte[64];
+        rng.nextBytes(first);
+        assertEquals("061550234d158c5ec95595fe04ef7a25767f2e24cc2bc479d09d86dc9abcfde7"
+                + "056a8c266f9ef97ed08541dbd2e1ffa19810f5392d076276ef41277c3ab6e94a", byteArrayToHexString(first));
+
+        byte[] second = new byte[20];
+        rng.nextBytes(second);
+        assertEquals("04562ad35e8ecafaafda16981cdaa147606beea6", byteArrayToHexString(second));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Bulk requests are split at 64 KiB; reseeding follows the interval  //
+    // --------------------------------------------------------------------- //
+    @Test
+    void splitsLargeRequests() {
+        SecureRandom a = wrap(new AESDRBG(new FixedEntropy(), 100));
+        SecureRandom b = wrap(new AESDRBG(new FixedEntropy(), 100));
+
+        byte[] bulk = new byte[200_003];
+        a.nextBytes(bulk);
+        byte[] firstRequest = new byte[65_536];
+        b.nextBytes(firstRequest);
+        assertArrayEquals(firstRequest, Arrays.copyOf(bulk, firstRequest.length));
+        assertFalse(Arrays.equals(Arrays.copyOfRange(bulk, 65_536, 131_072), firstRequest));
+    }
+
+    @Test
+    void reseedsFromEntropySource() {
+        FixedEntropy entropy = new FixedEntropy();
+        SecureRandom rng = wrap(new AESDRBG(entropy, 2));
+        assertEquals(1, entropy.calls.get());
+
+        byte[] out = new byte[16];
+        for (int i = 0; i < 5; i++) {
+            rng.nextBytes(out);
+        }
+        assertEquals(3, entropy.calls.get()); // instantiate + before requests 3 and 5
+
+        rng.setSeed(new byte[]{1, 2, 3});
+        assertEquals(4, entropy.calls.get());
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. One generator per thread                                           //
+    // --------------------------------------------------------------------- //
+    @Test
+    void currentIsPerThread() throws Exception {
+        SecureRandom mine = AESDRBG.current();
+        assertSame(mine, AESDRBG.current());
+        assertEquals("AES-256-CTR-DRBG", mine.getAlgorithm());
+
+        SecureRandom[] other = new SecureRandom[1];
+        Thread t = new Thread(() -> other[0] = AESDRBG.current());
+        t.start();
+        t.join();
+        assertNotSame(mine, other[0]);
+
+        byte[] x = new byte[32];
+        byte[] y = new byte[32];
+        mine.nextBytes(x);
+        other[0].nextBytes(y);
+        assertFalse(Arrays.equals(x, y));
+    }
+
+    // SecureRandom(SecureRandomSpi, Provider) is protected
+    private static SecureRandom wrap(AESDRBG drbg) {
+        return new SecureRandom(drbg, null) {
+        };
+    }
+}
@@ -0,0 +1,142 @@
+import AES.AES128;
+import AES.AES192;
+import AES.AES256;
+import AES.AESCipher;
+import AES.AESEngine;
+import AES.AESKey;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static AES.AES128.byteArrayToHexString;
+import static AES.AES128.hexStringToByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the word-oriented AESEngine.
+ */
+class AESEngineTest {
+
+    private static final byte[] FIPS_PLAINTEXT = hexStringToByteArray("00112233445566778899aabbccddeeff");
+    private static final Random RND = new Random(197);
+
+    // --------------------------------------------------------------------- //
+    // 1. FIPS-197 Appendix C known answers for all three key sizes          //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesFips197Vectors() {
+        assertKnownAnswer("000102030405060708090a0b0c0d0e0f",
+                "69c4e0d86a7b0430d8cdb78070b4c55a");
+        assertKnownAnswer("000102030405060708090a0b0c0d0e0f1011121314151617",
+                "dda97ca4864cdfe06eaf70a0ec0d7191");
+        assertKnownAnswer("000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f",
+                "8ea2b7ca516745bfeafc49904b496089");
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Same output as the detailed byte[][] implementations              //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesDetailedImplementations() {
+        for (int i = 0; i < 4; i++) {
+            byte[] block = randomBytes(16);
+
+            byte[] k128 = randomBytes(16);
+            assertArrayEquals(AES128.encryptBlockDetailed(block, k128), AESEngine.encryptBlock(block, k128));
+            assertArrayEquals(AES128.decryptBlockDetailed(block, k128), AESEngine.decryptBlock(block, k128));
+
+            byte[] k192 = randomBytes(24);
+            assertArrayEquals(AES192.encryptBlockDetailed192(block, k192), AESEngine.encryptBlock(block, k192));
+            assertArrayEquals(AES192.decryptBlockDetailed192(block, k192), AESEngine.decryptBlock(block, k192));
+
+            byte[] k256 = randomBytes(32);
+            assertArrayEquals(AES256.encryptBlockDetailed256(block, k256), AESEngine.encryptBlock(block, k256));
+            assertArrayEquals(AES256.decryptBlockDetailed256(block, k256), AESEngine.decryptBlock(block, k256));
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Offset-based API reads and writes in place                         //
+    // --------------------------------------------------------------------- //
+    @Test
+    void offsetApiRoundTripsInPlace() {
+        byte[] key = randomBytes(32);
+        int[] w = AESEngine.expandKey(key);
+        byte[] buf = randomBytes(40);
+        byte[] original = buf.clone();
+
+        AESEngine.encryptBlock(w, buf, 7, buf, 7);
+        assertNotEquals(byteArrayToHexString(original), byteArrayToHexString(buf));
+        AESEngine.decryptBlock(AESEngine.inverseKey(w), buf, 7, buf, 7);
+        assertArrayEquals(original, buf);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. BlockCipher view over heap and direct ByteBuffers                  //
+    // --------------------------------------------------------------------- //
+    @Test
+    void cipherByteBuffersMatchArrays() {
+        AESKey key = new AESKey(randomBytes(16));
+        byte[] data = randomBytes(48);
+        byte[] expected = new byte[48];
+        for (int i = 0; i < 48; i += 16) {
+            key.encryptBlock(data, i, expected, i);
+        }
+
+        AESCipher enc = new AESCipher(key, true);
+        AESCipher dec = new AESCipher(key, false);
+        ByteBuffer direct = ByteBuffer.allocateDirect(48);
+        ByteBuffer in = ByteBuffer.wrap(data);
+        while (in.hasRemaining()) {
+            enc.processBlock(in, direct);
+        }
+        direct.flip();
+        byte[] ct = new byte[48];
+        direct.duplicate().get(ct);
+        assertArrayEquals(expected, ct);
+
+        ByteBuffer heap = ByteBuffer.allocate(48);
+        while (direct.hasRemaining()) {
+            dec.processBlock(direct, heap);
+        }
+        assertArrayEquals(data, heap.array());
+    }
+
+    // --------------------------------------------------------------------- //
+    // 5. Equivalent inverse cipher: middle round keys pre-mixed once        //
+    // --------------------------------------------------------------------- //
+    @Test
+    void inverseKeyAppliesInvMixColumnsToMiddleRounds() {
+        int[] w = AESEngine.expandKey(randomBytes(16));
+        int[] dk = AESEngine.inverseKey(w);
+        int nr = AESEngine.rounds(w);
+
+        for (int round = 0; round <= nr; round++) {
+            byte[][] expected = AES128.getRoundKey(w, nr - round);
+            if (round != 0 && round != nr) {
+                AES128.invMixColumns(expected);
+            }
+            assertArrayEquals(AES128.stateToBytes(expected),
+                    AES128.stateToBytes(AES128.getRoundKey(dk, round)), "round " + round);
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedKeySize() {
+        assertThrows(IllegalArgumentException.class, () -> AESEngine.expandKey(new byte[20]));
+    }
+
+    private static void assertKnownAnswer(String keyHex, String expectedHex) {
+        byte[] key = hexStringToByteArray(keyHex);
+        byte[] ct = AESEngine.encryptBlock(FIPS_PLAINTEXT, key);
+        assertEquals(expectedHex, byteArrayToHexString(ct));
+        assertArrayEquals(FIPS_PLAINTEXT, AESEngine.decryptBlock(ct, key));
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
@@ -0,0 +1,106 @@
+import AES.AESGCM;
+import AES.AESKey;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Random;
+
+import static AES.AES128.byteArrayToHexString;
+import static AES.AES128.hexStringToByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AESGCM, checked against the GCM spec vectors and the JDK provider.
+ */
+class AESGCMTest {
+
+    private static final Random RND = new Random(38);
+
+    // --------------------------------------------------------------------- //
+    // 1. GCM specification test case 2 (zero key, zero IV, one zero block)  //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesSpecTestCase2() {
+        AESKey key = new AESKey(new byte[16]);
+        byte[] out = AESGCM.encrypt(key, new byte[12], null, new byte[16]);
+        assertEquals("0388dace60b6a392f328c2b971b2fe78" + "ab6e47d42cec13bdf53a67b21257bddf",
+                byteArrayToHexString(out));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Random messages, AAD and IV lengths agree with AES/GCM/NoPadding   //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesJdkProvider() throws Exception {
+        int[][] cases = {{12, 0, 0}, {12, 20, 33}, {8, 16, 64}, {60, 3, 1}, {12, 0, 70_001}};
+        for (int[] c : cases) {
+            byte[] rawKey = randomBytes(16 + 8 * RND.nextInt(3));
+            byte[] iv = randomBytes(c[0]);
+            byte[] aad = randomBytes(c[1]);
+            byte[] plaintext = randomBytes(c[2]);
+            AESKey key = new AESKey(rawKey);
+
+            Cipher jdk = Cipher.getInstance("AES/GCM/NoPadding");
+            jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKey, "AES"), new GCMParameterSpec(128, iv));
+            jdk.updateAAD(aad);
+            byte[] expected = jdk.doFinal(plaintext);
+
+            byte[] actual = AESGCM.encrypt(key, iv, aad, plaintext);
+            assertArrayEquals(expected, actual);
+            assertArrayEquals(plaintext, AESGCM.decrypt(key, iv, aad, actual));
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Streaming in odd-sized pieces with parallel chunks = one-shot      //
+    // --------------------------------------------------------------------- //
+    @Test
+    void streamingParallelMatchesOneShot() {
+        AESKey key = new AESKey(randomBytes(32));
+        byte[] iv = randomBytes(12);
+        byte[] aad = randomBytes(41);
+        byte[] plaintext = randomBytes(30_000);
+        byte[] expected = AESGCM.encrypt(key, iv, aad, plaintext);
+
+        AESGCM gcm = new AESGCM(key, 1024);
+        gcm.init(true, iv);
+        gcm.updateAAD(aad, 0, 7);
+        gcm.updateAAD(aad, 7, aad.length - 7);
+        byte[] out = new byte[plaintext.length];
+        int n = 0;
+        int[] pieces = {5, 11, 16, 9000, 3, 20_965};
+        int pos = 0;
+        for (int len : pieces) {
+            n += gcm.update(plaintext, pos, len, out, n);
+            pos += len;
+        }
+        n += gcm.doFinal(out, n);
+
+        assertEquals(plaintext.length, n);
+        byte[] actual = new byte[n + AESGCM.TAG_LENGTH];
+        System.arraycopy(out, 0, actual, 0, n);
+        System.arraycopy(gcm.getTag(), 0, actual, n, AESGCM.TAG_LENGTH);
+        assertArrayEquals(expected, actual);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. A flipped ciphertext bit is rejected                               //
+    // --------------------------------------------------------------------- //
+    @Test
+    void tamperedCiphertextFails() {
+        AESKey key = new AESKey(hexStringToByteArray("000102030405060708090a0b0c0d0e0f"));
+        byte[] iv = randomBytes(12);
+        byte[] sealed = AESGCM.encrypt(key, iv, null, randomBytes(40));
+        sealed[3] ^= 1;
+        assertThrows(AEADBadTagException.class, () -> AESGCM.decrypt(key, iv, null, sealed));
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
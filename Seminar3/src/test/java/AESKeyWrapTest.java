@@ -0,0 +1,121 @@
+import AES.AESKey;
+import AES.AESKeyWrap;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Random;
+
+import static AES.AES128.byteArrayToHexString;
+import static AES.AES128.hexStringToByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AESKeyWrap, checked against the RFC vectors and the JDK KW/KWP ciphers.
+ */
+class AESKeyWrapTest {
+
+    private static final Random RND = new Random(3394);
+
+    // --------------------------------------------------------------------- //
+    // 1. RFC 3394 sections 4.1 and 4.6, RFC 5649 section 6                  //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesRfcVectors() throws Exception {
+        AESKey kek128 = AESKey.fromHex("000102030405060708090a0b0c0d0e0f");
+        byte[] key = hexStringToByteArray("00112233445566778899aabbccddeeff");
+        byte[] wrapped = AESKeyWrap.wrap(kek128, key);
+        assertEquals("1fa68b0a8112b447aef34bd8fb5a7b829d3e862371d2cfe5", byteArrayToHexString(wrapped));
+        assertArrayEquals(key, AESKeyWrap.unwrap(kek128, wrapped));
+
+        AESKey kek256 = AESKey.fromHex("000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f");
+        byte[] key256 = hexStringToByteArray("00112233445566778899aabbccddeeff000102030405060708090a0b0c0d0e0f");
+        assertEquals("28c9f404c4b810f4cbccb35cfb87f8263f5786e2d80ed326cbc7f0e71a99f43bfb988b9b7a02dd21",
+                byteArrayToHexString(AESKeyWrap.wrap(kek256, key256)));
+
+        AESKey kek192 = AESKey.fromHex("5840df6e29b02af1ab493b705bf16ea1ae8338f4dcc176a8");
+        byte[] key20 = hexStringToByteArray("c37b7e6492584340bed12207808941155068f738");
+        byte[] key7 = hexStringToByteArray("466f7250617369");
+        assertEquals("138bdeaa9b8fa7fc61f97742e72248ee5ae6ae5360d1ae6a5f54f373fa543b6a",
+                byteArrayToHexString(AESKeyWrap.wrapPad(kek192, key20)));
+        assertEquals("afbeb0f07dfbf5419200f2ccb50bb24f", byteArrayToHexString(AESKeyWrap.wrapPad(kek192, key7)));
+        assertArrayEquals(key7, AESKeyWrap.unwrapPad(kek192, hexStringToByteArray("afbeb0f07dfbf5419200f2ccb50bb24f")));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Random keys agree with AES/KW and AES/KWP from the JDK             //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesJdkProvider() throws Exception {
+        for (int len : new int[]{1, 7, 8, 9, 16, 20, 24, 32, 100}) {
+            byte[] rawKek = randomBytes(16 + 8 * RND.nextInt(3));
+            AESKey kek = new AESKey(rawKek);
+            byte[] key = randomBytes(len);
+
+            Cipher kwp = Cipher.getInstance("AES/KWP/NoPadding");
+            kwp.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKek, "AES"));
+            assertArrayEquals(kwp.doFinal(key), AESKeyWrap.wrapPad(kek, key));
+
+            if (len >= 16 && len % 8 == 0) {
+                Cipher kw = Cipher.getInstance("AES/KW/NoPadding");
+                kw.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKek, "AES"));
+                assertArrayEquals(kw.doFinal(key), AESKeyWrap.wrap(kek, key));
+            }
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Tampering is detected                                              //
+    // --------------------------------------------------------------------- //
+    @Test
+    void rejectsTamperedKeys() {
+        AESKey kek = new AESKey(randomBytes(16));
+        byte[] wrapped = AESKeyWrap.wrap(kek, randomBytes(32));
+        wrapped[17] ^= 1;
+        assertThrows(AEADBadTagException.class, () -> AESKeyWrap.unwrap(kek, wrapped));
+
+        byte[] padded = AESKeyWrap.wrapPad(kek, randomBytes(5));
+        padded[3] ^= 0x40;
+        assertThrows(AEADBadTagException.class, () -> AESKeyWrap.unwrapPad(kek, padded));
+        assertThrows(AEADBadTagException.class,
+                () -> AESKeyWrap.unwrap(new AESKey(randomBytes(16)), AESKeyWrap.wrap(kek, new byte[16])));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. Parallel batches = single calls; one bad entry fails the batch     //
+    // --------------------------------------------------------------------- //
+    @Test
+    void batchesMatchSingleCalls() throws Exception {
+        AESKey kek = new AESKey(randomBytes(32));
+        byte[][] keys = new byte[1000][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = randomBytes(i % 2 == 0 ? 16 : 32);
+        }
+
+        byte[][] wrapped = AESKeyWrap.wrapAll(kek, keys, false);
+        byte[][] padded = AESKeyWrap.wrapAll(kek, keys, true);
+        for (int i = 0; i < keys.length; i += 97) {
+            assertArrayEquals(AESKeyWrap.wrap(kek, keys[i]), wrapped[i]);
+            assertArrayEquals(AESKeyWrap.wrapPad(kek, keys[i]), padded[i]);
+        }
+        byte[][] back = AESKeyWrap.unwrapAll(kek, wrapped, false);
+        byte[][] backPadded = AESKeyWrap.unwrapAll(kek, padded, true);
+        for (int i = 0; i < keys.length; i++) {
+            assertArrayEquals(keys[i], back[i]);
+            assertArrayEquals(keys[i], backPadded[i]);
+        }
+
+        wrapped[700][5] ^= 1;
+        wrapped[300][5] ^= 1;
+        AEADBadTagException e = assertThrows(AEADBadTagException.class,
+                () -> AESKeyWrap.unwrapAll(kek, wrapped, false));
+        assertTrue(e.getMessage().contains("300"));
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
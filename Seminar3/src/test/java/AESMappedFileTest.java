@@ -0,0 +1,92 @@
+import AES.AES;
+import AES.AESKey;
+import AES.AESMappedFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AESMappedFile: mapped output must equal the in-memory helpers.
+ */
+class AESMappedFileTest {
+
+    private static final Random RND = new Random(7);
+
+    // --------------------------------------------------------------------- //
+    // 1. Small windows: many window borders, padding in the last one        //
+    // --------------------------------------------------------------------- //
+    @Test
+    void smallWindowsMatchInMemoryModes(@TempDir Path dir) throws Exception {
+        AESKey key = new AESKey(randomBytes(16));
+        byte[] iv = randomBytes(16);
+        for (int size : new int[]{0, 5, 16, 1024, 1040, 3001}) {
+            assertRoundTrip(dir, key, iv, randomBytes(size), 1024);
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Large window: ranges are split across the fork/join pool           //
+    // --------------------------------------------------------------------- //
+    @Test
+    void largeWindowMatchesInMemoryModes(@TempDir Path dir) throws Exception {
+        AESKey key = new AESKey(randomBytes(32));
+        byte[] iv = randomBytes(16);
+        assertRoundTrip(dir, key, iv, randomBytes(300_007), AESMappedFile.DEFAULT_WINDOW_SIZE);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Bad padding is rejected and no plaintext is left in the output     //
+    // --------------------------------------------------------------------- //
+    @Test
+    void badPaddingIsRejected(@TempDir Path dir) throws Exception {
+        byte[] rawKey = randomBytes(16);
+        AESKey key = new AESKey(rawKey);
+        byte[] iv = randomBytes(16);
+        Path enc = dir.resolve("bad.enc");
+        Path dec = dir.resolve("bad.dec");
+
+        // Last byte says 4 bytes of padding, but the three before it differ
+        byte[] padded = randomBytes(48);
+        padded[47] = 4;
+        padded[44] = 9;
+        Cipher jdk = Cipher.getInstance("AES/CBC/NoPadding");
+        jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKey, "AES"), new IvParameterSpec(iv));
+        Files.write(enc, jdk.doFinal(padded));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> AESMappedFile.process(enc, dec, key, AESMappedFile.Mode.CBC, iv, false, 1024));
+        assertEquals(0, Files.size(dec));
+    }
+
+    private static void assertRoundTrip(Path dir, AESKey key, byte[] iv, byte[] plaintext, int window)
+            throws Exception {
+        Path plain = dir.resolve("in.bin");
+        Path enc = dir.resolve("out.enc");
+        Path dec = dir.resolve("out.dec");
+        Files.write(plain, plaintext);
+
+        AESMappedFile.process(plain, enc, key, AESMappedFile.Mode.CTR, iv, true, window);
+        assertArrayEquals(AES.encryptCTR(plaintext, key, iv), Files.readAllBytes(enc));
+        AESMappedFile.process(enc, dec, key, AESMappedFile.Mode.CTR, iv, false, window);
+        assertArrayEquals(plaintext, Files.readAllBytes(dec));
+
+        AESMappedFile.process(plain, enc, key, AESMappedFile.Mode.CBC, iv, true, window);
+        assertArrayEquals(AES.encryptCBC(plaintext, key, iv), Files.readAllBytes(enc));
+        AESMappedFile.process(enc, dec, key, AESMappedFile.Mode.CBC, iv, false, window);
+        assertArrayEquals(plaintext, Files.readAllBytes(dec));
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
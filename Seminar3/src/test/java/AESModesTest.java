@@ -0,0 +1,195 @@
+import AES.AES;
+import AES.AESCBC;
+import AES.AESCTR;
+import AES.AESKey;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Arrays;
+import java.util.Random;
+
+import static AES.AES128.hexStringToByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the AES mode helpers, checked against the JDK provider.
+ */
+class AESModesTest {
+
+    private static final Random RND = new Random(42);
+
+    // --------------------------------------------------------------------- //
+    // 1. ECB matches AES/ECB/PKCS5Padding for every key size                //
+    // --------------------------------------------------------------------- //
+    @Test
+    void ecbMatchesJdk() throws Exception {
+        for (int keyLen : new int[]{16, 24, 32}) {
+            byte[] rawKey = randomBytes(keyLen);
+            byte[] plaintext = randomBytes(75);
+            AESKey key = new AESKey(rawKey);
+
+            Cipher jdk = Cipher.getInstance("AES/ECB/PKCS5Padding");
+            jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKey, "AES"));
+
+            byte[] ciphertext = AES.encryptECB(plaintext, key);
+            assertArrayEquals(jdk.doFinal(plaintext), ciphertext);
+            assertArrayEquals(plaintext, AES.decryptECB(ciphertext, key));
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. CBC with a caller-supplied IV matches AES/CBC/PKCS5Padding         //
+    // --------------------------------------------------------------------- //
+    @Test
+    void cbcMatchesJdk() throws Exception {
+        byte[] rawKey = randomBytes(32);
+        byte[] iv = randomBytes(16);
+        byte[] plaintext = randomBytes(48);
+        AESKey key = new AESKey(rawKey);
+
+        Cipher jdk = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKey, "AES"), new IvParameterSpec(iv));
+
+        byte[] ciphertext = AES.encryptCBC(plaintext, key, iv);
+        assertArrayEquals(jdk.doFinal(plaintext), ciphertext);
+        assertArrayEquals(plaintext, AES.decryptCBC(ciphertext, key, iv));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. CTR matches AES/CTR/NoPadding, including a counter that wraps      //
+    // --------------------------------------------------------------------- //
+    @Test
+    void ctrMatchesJdk() throws Exception {
+        byte[] rawKey = randomBytes(16);
+        byte[] iv = hexStringToByteArray("00112233445566778fffffffffffffff");
+        byte[] plaintext = randomBytes(1000);
+        AESKey key = new AESKey(rawKey);
+
+        Cipher jdk = Cipher.getInstance("AES/CTR/NoPadding");
+        jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKey, "AES"), new IvParameterSpec(iv));
+
+        byte[] ciphertext = AES.encryptCTR(plaintext, key, iv);
+        assertArrayEquals(jdk.doFinal(plaintext), ciphertext);
+        assertArrayEquals(plaintext, AES.decryptCTR(ciphertext, key, iv));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. Fork/join split gives the same bytes as the serial path            //
+    // --------------------------------------------------------------------- //
+    @Test
+    void parallelCtrMatchesSerial() {
+        AESKey key = new AESKey(randomBytes(32));
+        byte[] iv = new byte[16];
+        Arrays.fill(iv, (byte) 0xff);
+        byte[] plaintext = randomBytes(100_003);
+
+        byte[] serial = AESCTR.crypt(plaintext, key, iv, Integer.MAX_VALUE);
+        byte[] parallel = AESCTR.crypt(plaintext, key, iv, 256);
+        assertArrayEquals(serial, parallel);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 5. Parallel CBC decryption matches the JDK on a multi-chunk input     //
+    // --------------------------------------------------------------------- //
+    @Test
+    void parallelCbcDecryptMatchesJdk() throws Exception {
+        byte[] rawKey = randomBytes(24);
+        byte[] iv = randomBytes(16);
+        byte[] plaintext = randomBytes(3124 * 16);
+        AESKey key = new AESKey(rawKey);
+
+        Cipher jdk = Cipher.getInstance("AES/CBC/NoPadding");
+        jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKey, "AES"), new IvParameterSpec(iv));
+        byte[] ciphertext = jdk.doFinal(plaintext);
+
+        byte[] out = new byte[ciphertext.length];
+        AESCBC.decrypt(ciphertext, 0, ciphertext.length, out, 0, key, iv, 512);
+        assertArrayEquals(plaintext, out);
+        assertThrows(IllegalArgumentException.class,
+                () -> AESCBC.decrypt(ciphertext, 0, 64, ciphertext, 16, key, iv, 512));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 6. CBC-CS3 matches RFC 3962 and CBC with the last two blocks swapped  //
+    // --------------------------------------------------------------------- //
+    @Test
+    void cbcCs3MatchesReference() throws Exception {
+        AESKey rfcKey = AESKey.fromHex("636869636b656e207465726979616b69");
+        byte[] zeroIv = new byte[16];
+        String[][] rfc = {
+                {"4920776f756c64206c696b652074686520", "c6353568f2bf8cb4d8a580362da7ff7f97"},
+                {"4920776f756c64206c696b65207468652047656e6572616c20476175277320",
+                        "fc00783e0efdb2c1d445d4c8eff7ed2297687268d6ecccc0c07b25e25ecfe5"},
+                {"4920776f756c64206c696b65207468652047656e6572616c2047617527732043",
+                        "39312523a78662d5be7fcbcc98ebf5a897687268d6ecccc0c07b25e25ecfe584"}};
+        for (String[] v : rfc) {
+            byte[] pt = hexStringToByteArray(v[0]);
+            byte[] ct = AES.encryptCBCCS3(pt, rfcKey, zeroIv);
+            assertArrayEquals(hexStringToByteArray(v[1]), ct);
+            assertArrayEquals(pt, AES.decryptCBCCS3(ct, rfcKey, zeroIv));
+        }
+
+        for (int len : new int[]{16, 17, 32, 47, 48, 100, 70_001}) {
+            byte[] rawKey = randomBytes(32);
+            byte[] iv = randomBytes(16);
+            byte[] plaintext = randomBytes(len);
+            AESKey key = new AESKey(rawKey);
+
+            // Reference: CBC over the zero-extended input, swap the last two blocks, truncate
+            int padded = (len + 15) / 16 * 16;
+            Cipher jdk = Cipher.getInstance("AES/CBC/NoPadding");
+            jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(rawKey, "AES"), new IvParameterSpec(iv));
+            byte[] cbc = jdk.doFinal(Arrays.copyOf(plaintext, padded));
+            byte[] expected = cbc.clone();
+            if (padded > 16) {
+                System.arraycopy(cbc, padded - 16, expected, padded - 32, 16);
+                System.arraycopy(cbc, padded - 32, expected, padded - 16, 16);
+            }
+            expected = Arrays.copyOf(expected, len);
+
+            byte[] ciphertext = AES.encryptCBCCS3(plaintext, key, iv);
+            assertArrayEquals(expected, ciphertext, "length " + len);
+            assertArrayEquals(plaintext, AES.decryptCBCCS3(ciphertext, key, iv), "length " + len);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> AES.encryptCBCCS3(new byte[15], rfcKey, zeroIv));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 7. Multi-buffer CBC batch = one encryptCBC call per message           //
+    // --------------------------------------------------------------------- //
+    @Test
+    void cbcBatchMatchesSingleMessages() {
+        AESKey key = new AESKey(randomBytes(16));
+        byte[][] plaintexts = new byte[23][];
+        byte[][] ivs = new byte[plaintexts.length][];
+        for (int i = 0; i < plaintexts.length; i++) {
+            plaintexts[i] = randomBytes(RND.nextInt(200));
+            ivs[i] = randomBytes(16);
+        }
+        plaintexts[5] = new byte[0];
+        plaintexts[6] = randomBytes(64);
+
+        byte[][] batch = AES.encryptCBC(plaintexts, key, ivs);
+        for (int i = 0; i < plaintexts.length; i++) {
+            assertArrayEquals(AES.encryptCBC(plaintexts[i], key, ivs[i]), batch[i], "message " + i);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> AES.encryptCBC(plaintexts, key, new byte[1][16]));
+    }
+
+    @Test
+    void keyReportsItsSize() {
+        assertEquals(128, new AESKey(new byte[16]).keySize());
+        assertEquals(192, new AESKey(new byte[24]).keySize());
+        assertEquals(256, new AESKey(new byte[32]).keySize());
+    }
+
+    static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
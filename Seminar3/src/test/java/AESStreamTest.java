@@ -0,0 +1,85 @@
+import AES.AES;
+import AES.AESKey;
+import AES.AESStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AESStream: chunked output must equal the in-memory helpers.
+ */
+class AESStreamTest {
+
+    private static final Random RND = new Random(6);
+    private static final int[] SIZES = {0, 1, 15, 16, 63, 64, 65, 1000};
+
+    // --------------------------------------------------------------------- //
+    // 1. Every mode, with a tiny buffer so chunk borders are exercised      //
+    // --------------------------------------------------------------------- //
+    @Test
+    void streamMatchesInMemoryModes() throws Exception {
+        AESKey key = new AESKey(randomBytes(16));
+        byte[] iv = randomBytes(16);
+
+        for (int size : SIZES) {
+            byte[] plaintext = randomBytes(size);
+            assertStream(plaintext, AES.encryptECB(plaintext, key), key, AESStream.Mode.ECB, iv);
+            assertStream(plaintext, AES.encryptCBC(plaintext, key, iv), key, AESStream.Mode.CBC, iv);
+            assertStream(plaintext, AES.encryptCTR(plaintext, key, iv), key, AESStream.Mode.CTR, iv);
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. FileChannel round trip                                             //
+    // --------------------------------------------------------------------- //
+    @Test
+    void fileChannelRoundTrip(@TempDir Path dir) throws Exception {
+        AESKey key = new AESKey(randomBytes(32));
+        byte[] iv = randomBytes(16);
+        byte[] plaintext = randomBytes(200_001);
+        Path plain = dir.resolve("plain.bin");
+        Path enc = dir.resolve("plain.enc");
+        Path dec = dir.resolve("plain.dec");
+        Files.write(plain, plaintext);
+
+        long written = AESStream.encryptFile(plain, enc, key, AESStream.Mode.CBC, iv);
+        assertEquals(200_016, written);
+        assertArrayEquals(AES.encryptCBC(plaintext, key, iv), Files.readAllBytes(enc));
+
+        AESStream.decryptFile(enc, dec, key, AESStream.Mode.CBC, iv);
+        assertArrayEquals(plaintext, Files.readAllBytes(dec));
+    }
+
+    @Test
+    void rejectsCorruptPadding() {
+        AESKey key = new AESKey(randomBytes(16));
+        byte[] bogus = AES.encryptECB(randomBytes(16), key); // two blocks
+        bogus[31] ^= 0x55;
+        assertThrows(IllegalArgumentException.class, () -> AESStream.decrypt(
+                new ByteArrayInputStream(bogus), new ByteArrayOutputStream(), key, AESStream.Mode.ECB, null));
+    }
+
+    private static void assertStream(byte[] plaintext, byte[] expected, AESKey key,
+                                     AESStream.Mode mode, byte[] iv) throws Exception {
+        ByteArrayOutputStream enc = new ByteArrayOutputStream();
+        AESStream.encrypt(new ByteArrayInputStream(plaintext), enc, key, mode, iv, 32);
+        assertArrayEquals(expected, enc.toByteArray(), mode + " / " + plaintext.length);
+
+        ByteArrayOutputStream dec = new ByteArrayOutputStream();
+        AESStream.decrypt(new ByteArrayInputStream(enc.toByteArray()), dec, key, mode, iv, 32);
+        assertArrayEquals(plaintext, dec.toByteArray(), mode + " / " + plaintext.length);
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
@@ -0,0 +1,105 @@
+import AES.AESKey;
+import AES.AESXTS;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static AES.AES128.byteArrayToHexString;
+import static AES.AES128.hexStringToByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AESXTS, checked against the IEEE 1619 vectors.
+ */
+class AESXTSTest {
+
+    private static final Random RND = new Random(1619);
+
+    // --------------------------------------------------------------------- //
+    // 1. IEEE 1619 vector 2 (two full blocks)                               //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesIeeeVector2() {
+        AESXTS xts = new AESXTS(hexStringToByteArray("11".repeat(16) + "22".repeat(16)));
+        byte[] pt = hexStringToByteArray("44".repeat(32));
+        byte[] ct = xts.encryptSector(0x3333333333L, pt);
+        assertEquals("c454185e6a16936e39334038acef838bfb186fff7480adc4289382ecd6d394f0",
+                byteArrayToHexString(ct));
+        assertArrayEquals(pt, xts.decryptSector(0x3333333333L, ct));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. IEEE 1619 vector 15 (17 bytes, ciphertext stealing)                //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesIeeeVector15() {
+        AESXTS xts = new AESXTS(
+                hexStringToByteArray("fffefdfcfbfaf9f8f7f6f5f4f3f2f1f0" + "bfbebdbcbbbab9b8b7b6b5b4b3b2b1b0"));
+        byte[] pt = hexStringToByteArray("000102030405060708090a0b0c0d0e0f10");
+        byte[] ct = xts.encryptSector(0x123456789aL, pt);
+        assertEquals("6c1625db4671522d3d7599601de7ca09ed", byteArrayToHexString(ct));
+        assertArrayEquals(pt, xts.decryptSector(0x123456789aL, ct));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Random lengths round-trip in place                                 //
+    // --------------------------------------------------------------------- //
+    @Test
+    void roundTripsInPlace() {
+        for (int len : new int[]{16, 17, 31, 63, 64, 65, 100, 512, 4095}) {
+            AESXTS xts = new AESXTS(randomBytes(RND.nextBoolean() ? 32 : 64));
+            long sector = RND.nextLong();
+            byte[] pt = randomBytes(len);
+            byte[] expected = xts.encryptSector(sector, pt);
+
+            byte[] buf = new byte[len + 8];
+            System.arraycopy(pt, 0, buf, 4, len);
+            xts.encryptSector(sector, buf, 4, len, buf, 4);
+            assertArrayEquals(expected, Arrays.copyOfRange(buf, 4, 4 + len));
+            xts.decryptSector(sector, buf, 4, len, buf, 4);
+            assertArrayEquals(pt, Arrays.copyOfRange(buf, 4, 4 + len));
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. Parallel sector runs = one sector at a time                        //
+    // --------------------------------------------------------------------- //
+    @Test
+    void sectorRunMatchesSingleSectors() {
+        AESXTS xts = new AESXTS(new AESKey(randomBytes(32)), new AESKey(randomBytes(32)));
+        int sectorSize = 520; // not a block multiple, so every sector steals
+        int sectors = 300;
+        byte[] pt = randomBytes(sectorSize * sectors);
+
+        byte[] expected = new byte[pt.length];
+        for (int s = 0; s < sectors; s++) {
+            xts.encryptSector(1000 + s, pt, s * sectorSize, sectorSize, expected, s * sectorSize);
+        }
+
+        byte[] ct = new byte[pt.length];
+        xts.cryptSectors(true, 1000, sectorSize, pt, 0, pt.length, ct, 0, 4 * sectorSize);
+        assertArrayEquals(expected, ct);
+
+        byte[] back = new byte[pt.length];
+        xts.decryptSectors(1000, sectorSize, ct, 0, ct.length, back, 0);
+        assertArrayEquals(pt, back);
+    }
+
+    @Test
+    void rejectsBadInput() {
+        byte[] same = new byte[32];
+        assertThrows(IllegalArgumentException.class, () -> new AESXTS(same));
+        assertThrows(IllegalArgumentException.class, () -> new AESXTS(new byte[48]));
+        AESXTS xts = new AESXTS(randomBytes(32));
+        assertThrows(IllegalArgumentException.class, () -> xts.encryptSector(0, new byte[15]));
+        assertThrows(IllegalArgumentException.class,
+                () -> xts.encryptSectors(0, 512, new byte[1000], 0, 1000, new byte[1000], 0));
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
@@ -0,0 +1,130 @@
+import DES.DES;
+import DES.DESEngine;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the long-based DESEngine.
+ */
+class DESEngineTest {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Random RND = new Random(46);
+
+    // --------------------------------------------------------------------- //
+    // 1. Professor's worked example                                         //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesSeminarExample() {
+        byte[] key = HEX.parseHex("3b3898371520f75e");
+        byte[] block = HEX.parseHex("8f03456d3f78e2c5");
+        byte[] out = new byte[8];
+
+        new DESEngine(key, true).processBlock(block, 0, out, 0);
+        assertEquals("fc914f586f29d5f5", HEX.formatHex(out));
+
+        new DESEngine(key, false).processBlock(out, 0, out, 0);
+        assertArrayEquals(block, out);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Same output as the bit-array DES implementation                    //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesBitArrayImplementation() {
+        for (int i = 0; i < 64; i++) {
+            byte[] key = randomBytes(8);
+            byte[] block = randomBytes(8);
+            String keyHex = HEX.formatHex(key);
+            String blockHex = HEX.formatHex(block);
+
+            byte[] out = new byte[8];
+            new DESEngine(key, true).processBlock(block, 0, out, 0);
+            assertEquals(DES.encryptBlock(blockHex, keyHex), HEX.formatHex(out));
+
+            new DESEngine(key, false).processBlock(block, 0, out, 0);
+            assertEquals(DES.decryptBlock(blockHex, keyHex), HEX.formatHex(out));
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. ByteBuffer API on direct buffers                                   //
+    // --------------------------------------------------------------------- //
+    @Test
+    void byteBufferApiAdvancesPositions() {
+        byte[] key = randomBytes(8);
+        byte[] data = randomBytes(24);
+        ByteBuffer in = ByteBuffer.allocateDirect(24).put(data).flip();
+        ByteBuffer out = ByteBuffer.allocateDirect(24);
+
+        DESEngine enc = new DESEngine(key, true);
+        while (in.hasRemaining()) {
+            enc.processBlock(in, out);
+        }
+        assertEquals(24, out.position());
+
+        byte[] expected = new byte[24];
+        for (int i = 0; i < 24; i += 8) {
+            enc.processBlock(data, i, expected, i);
+        }
+        byte[] actual = new byte[24];
+        out.flip().get(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. SP-table round function against the bit-array fFunction            //
+    // --------------------------------------------------------------------- //
+    @Test
+    void spRoundFunctionMatchesBitArray() {
+        // Grabbe's worked example: R0 = f0aaf0aa, K1 = 1b02effc7072
+        assertEquals(0x234aa9bb, DESEngine.fFunction(0xf0aaf0aa, 0x1b02effc7072L));
+
+        // Every SP entry: with R = 0 each S-box sees its 6 key bits directly
+        for (int x = 0; x < 64; x++) {
+            long subkey = 0;
+            for (int i = 0; i < 8; i++) {
+                subkey = (subkey << 6) | ((x + 13 * i) & 0x3f);
+            }
+            assertEquals(bitArrayF(0, subkey), DESEngine.fFunction(0, subkey));
+        }
+        for (int n = 0; n < 500; n++) {
+            int r = RND.nextInt();
+            long subkey = RND.nextLong() & 0xffffffffffffL;
+            assertEquals(bitArrayF(r, subkey), DESEngine.fFunction(r, subkey));
+        }
+    }
+
+    private static int bitArrayF(int r, long subkey) {
+        int[] out = DES.fFunction(bits(r & 0xffffffffL, 32), bits(subkey, 48));
+        int v = 0;
+        for (int bit : out) {
+            v = (v << 1) | bit;
+        }
+        return v;
+    }
+
+    private static int[] bits(long v, int n) {
+        int[] b = new int[n];
+        for (int i = 0; i < n; i++) {
+            b[i] = (int) (v >>> (n - 1 - i)) & 1;
+        }
+        return b;
+    }
+
+    @Test
+    void rejectsWrongKeyLength() {
+        assertThrows(IllegalArgumentException.class, () -> new DESEngine(new byte[7], true));
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
@@ -0,0 +1,122 @@
+import DES.DES;
+import DES.DESEngine;
+import DES.DESKey;
+import DES.TripleDES;
+import org.junit.jupiter.api.Test;
+import util.TraceListener;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the expanded DESKey and the DES/3DES overloads that take it.
+ */
+class DESKeyTest {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Random RND = new Random(47);
+
+    // --------------------------------------------------------------------- //
+    // 1. DESKey block methods = bit-array hex-key methods                   //
+    // --------------------------------------------------------------------- //
+    @Test
+    void blockMethodsMatchHexKeyMethods() {
+        DESKey professor = DESKey.fromHex("3b3898371520f75e");
+        assertEquals("fc914f586f29d5f5", DES.encryptBlock("8f03456d3f78e2c5", professor));
+        assertEquals("8f03456d3f78e2c5", DES.decryptBlock("fc914f586f29d5f5", professor));
+
+        for (int i = 0; i < 32; i++) {
+            String keyHex = HEX.formatHex(randomBytes(8));
+            String blockHex = HEX.formatHex(randomBytes(8));
+            DESKey key = DESKey.fromHex(keyHex);
+            assertEquals(DES.encryptBlock(blockHex, keyHex), DES.encryptBlock(blockHex, key));
+            assertEquals(DES.decryptBlock(blockHex, keyHex), DES.decryptBlock(blockHex, key));
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Text round trips, DES and 3DES, against the hex-key block methods  //
+    // --------------------------------------------------------------------- //
+    @Test
+    void textMethodsRoundTrip() {
+        String text = "DES algoritm is better than classical algorithms";
+        DESKey key = DESKey.fromHex("3b3898371520f75e");
+        String ct = DES.encryptText(text, key);
+        assertEquals(DES.encryptBlock(DES.padHex(DES.textToHex(text)).substring(0, 16), "3b3898371520f75e"),
+                ct.substring(0, 16));
+        assertEquals(text, DES.decryptText(ct, key));
+
+        String k1 = "0123456789abcdef", k2 = "23456789abcdef01", k3 = "456789abcdef0123";
+        DESKey d1 = DESKey.fromHex(k1), d2 = DESKey.fromHex(k2), d3 = DESKey.fromHex(k3);
+        String block = "5468652071756663";
+        assertEquals(TripleDES.encryptBlock(block, k1, k2, k3), TripleDES.encryptBlock(block, d1, d2, d3));
+        assertEquals(TripleDES.decryptBlock(block, k1, k2, k3), TripleDES.decryptBlock(block, d1, d2, d3));
+
+        String ct3 = TripleDES.encryptText("Triple DES works!", d1, d2, d3);
+        assertEquals("Triple DES works!", TripleDES.decryptText(ct3, d1, d2, d3));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Trace events are the same as on the bit-array path                 //
+    // --------------------------------------------------------------------- //
+    @Test
+    void traceMatchesBitArrayPath() {
+        List<String> bitArray = new ArrayList<>();
+        List<String> expanded = new ArrayList<>();
+        DES.encryptBlock("8f03456d3f78e2c5", "3b3898371520f75e", recorder(bitArray));
+        DES.encryptBlock("8f03456d3f78e2c5", DESKey.fromHex("3b3898371520f75e"), recorder(expanded));
+        assertEquals(17, expanded.size());
+        assertEquals(bitArray, expanded);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. Engines built from a DESKey share it, and destroy wipes both       //
+    // --------------------------------------------------------------------- //
+    @Test
+    void enginesShareAndDestroyKey() {
+        byte[] raw = randomBytes(8);
+        byte[] block = randomBytes(8);
+        DESKey key = new DESKey(raw);
+
+        byte[] expected = new byte[8], actual = new byte[8];
+        new DESEngine(raw, true).processBlock(block, 0, expected, 0);
+        DESEngine engine = new DESEngine(key, true);
+        engine.processBlock(block, 0, actual, 0);
+        assertArrayEquals(expected, actual);
+        assertEquals(HEX.formatHex(expected), DES.encryptBlock(HEX.formatHex(block), key));
+
+        engine.destroy();
+        assertTrue(key.isDestroyed());
+        assertThrows(IllegalArgumentException.class, () -> new DESKey(new byte[9]));
+        assertThrows(IllegalArgumentException.class, () -> DESKey.fromHex("3b38983715"));
+    }
+
+    private static TraceListener recorder(List<String> events) {
+        return new TraceListener() {
+            @Override
+            public void beginBlock(int index, String blockHex) {
+                events.add(index + " " + blockHex);
+            }
+
+            @Override
+            public void round(int round, String label, String value) {
+                events.add(round + " " + label + " " + value);
+            }
+
+            @Override
+            public void step(String label, String value) {
+                events.add(label + " " + value);
+            }
+        };
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
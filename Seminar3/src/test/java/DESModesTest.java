@@ -0,0 +1,135 @@
+import DES.DES;
+import DES.DESCBC;
+import DES.DESCTR;
+import DES.DESStream;
+import DES.TripleDESEngine;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the DES/3DES CBC and CTR helpers, checked against the JDK provider.
+ */
+class DESModesTest {
+
+    private static final Random RND = new Random(49);
+    private static final int[] SIZES = {0, 1, 7, 8, 9, 63, 64, 65, 1000};
+
+    // --------------------------------------------------------------------- //
+    // 1. CBC matches DES/CBC and DESede/CBC with PKCS5Padding               //
+    // --------------------------------------------------------------------- //
+    @Test
+    void cbcMatchesJdk() throws Exception {
+        for (int keyLen : new int[]{8, 24}) {
+            byte[] rawKey = randomBytes(keyLen);
+            byte[] iv = randomBytes(8);
+            for (int size : SIZES) {
+                byte[] plaintext = randomBytes(size);
+                byte[] ciphertext = DESCBC.encrypt(plaintext, rawKey, iv);
+                assertArrayEquals(jdk("CBC/PKCS5Padding", rawKey, iv, plaintext), ciphertext, keyLen + "/" + size);
+                assertArrayEquals(plaintext, DESCBC.decrypt(ciphertext, rawKey, iv), keyLen + "/" + size);
+            }
+        }
+        byte[] key = randomBytes(8);
+        byte[] iv = randomBytes(8);
+        byte[] tampered = DESCBC.encrypt(new byte[5], key, iv);
+        tampered[tampered.length - 1] ^= 0x40;
+        assertThrows(IllegalArgumentException.class, () -> DESCBC.decrypt(tampered, key, iv));
+        assertThrows(IllegalArgumentException.class, () -> DESCBC.encrypt(new byte[8], key, new byte[16]));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. CTR matches DESede/CTR/NoPadding, including a counter that wraps   //
+    // --------------------------------------------------------------------- //
+    @Test
+    void ctrMatchesJdk() throws Exception {
+        byte[] rawKey = randomBytes(24);
+        byte[] iv = {0x00, 0x11, 0x22, 0x33, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xf0};
+        byte[] plaintext = randomBytes(1001);
+
+        byte[] ciphertext = DESCTR.crypt(plaintext, rawKey, iv);
+        assertArrayEquals(jdk("CTR/NoPadding", rawKey, iv, plaintext), ciphertext);
+        assertArrayEquals(plaintext, DESCTR.crypt(ciphertext, rawKey, iv));
+
+        Arrays.fill(iv, (byte) 0xff); // wraps after the first block
+        assertArrayEquals(jdk("CTR/NoPadding", rawKey, iv, plaintext), DESCTR.crypt(plaintext, rawKey, iv));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Fork/join split gives the same bytes as the serial path            //
+    // --------------------------------------------------------------------- //
+    @Test
+    void parallelCtrMatchesSerial() {
+        byte[] rawKey = randomBytes(16);
+        byte[] iv = randomBytes(8);
+        byte[] plaintext = randomBytes(20_003);
+
+        // One cipher per work unit, never one shared by all workers
+        AtomicInteger built = new AtomicInteger();
+        Supplier<TripleDESEngine> ciphers = () -> {
+            built.incrementAndGet();
+            return new TripleDESEngine(rawKey, true);
+        };
+        byte[] serial = DESCTR.crypt(plaintext, new TripleDESEngine(rawKey, true), iv);
+        byte[] parallel = DESCTR.crypt(plaintext, ciphers, iv, 256);
+        assertArrayEquals(serial, parallel);
+        assertTrue(built.get() >= (plaintext.length + 255) / 256);
+        assertThrows(IllegalArgumentException.class, () -> DESCTR.crypt(plaintext, ciphers, iv, 4));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. Streams with a tiny buffer equal the in-memory helpers             //
+    // --------------------------------------------------------------------- //
+    @Test
+    void streamMatchesInMemoryModes() throws Exception {
+        byte[] rawKey = randomBytes(16);
+        byte[] iv = randomBytes(8);
+        for (int size : SIZES) {
+            byte[] plaintext = randomBytes(size);
+            assertStream(plaintext, DESCBC.encrypt(plaintext, rawKey, iv), rawKey, DESStream.Mode.CBC, iv);
+            assertStream(plaintext, DESCTR.crypt(plaintext, rawKey, iv), rawKey, DESStream.Mode.CTR, iv);
+        }
+        // Several default-size buffers, each split across the pool in CTR mode
+        byte[] large = randomBytes(3 * DESStream.DEFAULT_BUFFER_SIZE + 5);
+        ByteArrayOutputStream ctr = new ByteArrayOutputStream();
+        DESStream.encrypt(new ByteArrayInputStream(large), ctr, rawKey, DESStream.Mode.CTR, iv);
+        assertArrayEquals(DESCTR.crypt(large, DES.engine(rawKey, true), iv), ctr.toByteArray());
+
+        assertThrows(IllegalArgumentException.class, () -> DESStream.encrypt(new ByteArrayInputStream(new byte[0]),
+                new ByteArrayOutputStream(), DES.engine(rawKey, true), DESStream.Mode.CBC, iv, 12));
+    }
+
+    private static void assertStream(byte[] plaintext, byte[] expected, byte[] key, DESStream.Mode mode,
+                                     byte[] iv) throws Exception {
+        ByteArrayOutputStream enc = new ByteArrayOutputStream();
+        DESStream.encrypt(new ByteArrayInputStream(plaintext), enc, DES.engine(key, true), mode, iv, 16);
+        assertArrayEquals(expected, enc.toByteArray(), mode + " " + plaintext.length);
+
+        ByteArrayOutputStream dec = new ByteArrayOutputStream();
+        DESStream.decrypt(new ByteArrayInputStream(expected), dec, key, mode, iv);
+        assertArrayEquals(plaintext, dec.toByteArray(), mode + " " + plaintext.length);
+    }
+
+    private static byte[] jdk(String modePadding, byte[] key, byte[] iv, byte[] input) throws Exception {
+        String alg = key.length == 8 ? "DES" : "DESede";
+        Cipher c = Cipher.getInstance(alg + "/" + modePadding);
+        c.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, alg), new IvParameterSpec(iv));
+        return c.doFinal(input);
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
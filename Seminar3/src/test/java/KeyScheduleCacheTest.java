@@ -0,0 +1,174 @@
+import AES.AES;
+import AES.AESKey;
+import DES.DESEngine;
+import org.junit.jupiter.api.Test;
+import util.KeyScheduleCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bounded key-schedule cache: hits, eviction order and wiping.
+ */
+class KeyScheduleCacheTest {
+
+    private static final Random RND = new Random(14);
+
+    // --------------------------------------------------------------------- //
+    // 1. Same key is expanded once; counters track hits and misses          //
+    // --------------------------------------------------------------------- //
+    @Test
+    void countsHitsAndMisses() {
+        KeyScheduleCache<AESKey> cache = AESKey.cache(8);
+        byte[] raw = randomBytes(16);
+        byte[] pt = randomBytes(40);
+        byte[] iv = randomBytes(16);
+
+        byte[] first = cache.withKey(raw, k -> AES.encryptCTR(pt, k, iv));
+        byte[] second = cache.withKey(raw.clone(), k -> AES.encryptCTR(pt, k, iv));
+
+        assertArrayEquals(AES.encryptCTR(pt, new AESKey(raw), iv), first);
+        assertArrayEquals(first, second);
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.size());
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Least recently used entry is evicted and wiped                     //
+    // --------------------------------------------------------------------- //
+    @Test
+    void evictsLeastRecentlyUsedAndWipes() {
+        KeyScheduleCache<AESKey> cache = AESKey.cache(2); // two segments of one entry each
+        List<AESKey> seen = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            cache.withKey(randomBytes(16), seen::add);
+        }
+
+        assertTrue(cache.size() <= 2);
+        assertEquals(50 - cache.size(), cache.evictions());
+        long wiped = seen.stream().filter(AESKey::isDestroyed).count();
+        assertEquals(cache.evictions(), wiped);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertTrue(seen.stream().allMatch(AESKey::isDestroyed));
+    }
+
+    @Test
+    void keyInUseIsWipedOnlyAfterRelease() {
+        KeyScheduleCache<DESEngine> cache = DESEngine.cache(1, true);
+        byte[] raw = randomBytes(8);
+        byte[] block = randomBytes(8);
+
+        byte[] out = cache.withKey(raw, engine -> {
+            cache.clear(); // evicted while in use
+            assertFalse(engine.isDestroyed());
+            byte[] ct = new byte[8];
+            engine.processBlock(block, 0, ct, 0);
+            return ct;
+        });
+
+        byte[] expected = new byte[8];
+        new DESEngine(raw, true).processBlock(block, 0, expected, 0);
+        assertArrayEquals(expected, out);
+        assertEquals(0, cache.size());
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. Concurrent use never sees a wiped schedule                         //
+    // --------------------------------------------------------------------- //
+    @Test
+    void concurrentUseStaysCorrect() throws Exception {
+        KeyScheduleCache<AESKey> cache = AESKey.cache(4);
+        byte[][] keys = new byte[16][];
+        byte[][] expected = new byte[16][];
+        byte[] pt = randomBytes(16);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = randomBytes(16);
+            expected[i] = new byte[16];
+            new AESKey(keys[i]).encryptBlock(pt, 0, expected[i], 0);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(pool.submit(() -> {
+                    Random r = new Random(seed);
+                    for (int n = 0; n < 2000; n++) {
+                        int i = r.nextInt(keys.length);
+                        byte[] ct = cache.withKey(keys[i], k -> {
+                            byte[] out = new byte[16];
+                            k.encryptBlock(pt, 0, out, 0);
+                            return out;
+                        });
+                        assertArrayEquals(expected[i], ct);
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(8000, cache.hits() + cache.misses());
+        assertTrue(cache.size() <= 4);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 4. A slow miss does not block hits in the same segment                //
+    // --------------------------------------------------------------------- //
+    @Test
+    void expansionRunsOutsideTheSegmentLock() throws Exception {
+        CountDownLatch expanding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] warm = randomBytes(16);
+        byte[] slow = randomBytes(16);
+        KeyScheduleCache<AESKey> cache = new KeyScheduleCache<>(1, raw -> {
+            if (Arrays.equals(raw, slow)) {
+                expanding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new AESKey(raw);
+        });
+        cache.withKey(warm, k -> k);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> miss = pool.submit(() -> cache.withKey(slow, k -> k));
+            assertTrue(expanding.await(5, TimeUnit.SECONDS));
+            // The only segment is not locked while "slow" is being expanded
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> cache.withKey(warm, k -> k));
+            release.countDown();
+            miss.get();
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+        assertEquals(2, cache.misses());
+        assertEquals(1, cache.hits());
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
@@ -0,0 +1,93 @@
+import AES.AES;
+import AES.AESKey;
+import DES.DES;
+import DES.TripleDES;
+import org.junit.jupiter.api.Test;
+import util.TraceListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tracing must observe the ciphers without changing their output.
+ */
+class TraceListenerTest {
+
+    private static final Random RND = new Random(9);
+
+    /** Records every event as one line. */
+    private static final class Recorder implements TraceListener {
+        final List<String> events = new ArrayList<>();
+        int rounds, blocks;
+
+        @Override
+        public void beginBlock(int index, String blockHex) {
+            blocks++;
+            events.add("block " + index + " " + blockHex);
+        }
+
+        @Override
+        public void step(String label, String value) {
+            events.add(label + "=" + value);
+        }
+
+        @Override
+        public void round(int round, String label, String value) {
+            rounds++;
+            events.add("round " + round + " " + value);
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 1. DES reports all 16 rounds and the same ciphertext                  //
+    // --------------------------------------------------------------------- //
+    @Test
+    void desTraceSeesEveryRound() {
+        Recorder rec = new Recorder();
+        String ct = DES.encryptBlock("8f03456d3f78e2c5", "3b3898371520f75e", rec);
+
+        assertEquals("fc914f586f29d5f5", ct);
+        assertEquals(16, rec.rounds);
+        assertEquals("Final Ciphertext (hex)=fc914f586f29d5f5", rec.events.get(rec.events.size() - 1));
+        assertEquals(ct, DES.encryptBlock("8f03456d3f78e2c5", "3b3898371520f75e"));
+    }
+
+    @Test
+    void tripleDesTraceSeesEveryBlock() {
+        Recorder rec = new Recorder();
+        String text = "Triple DES works!";
+        String ct = TripleDES.encryptText(text, "0123456789abcdef", "23456789abcdef01", "456789abcdef0123", rec);
+
+        assertEquals(3, rec.blocks);
+        assertEquals(3 * 2 * 16, rec.rounds);
+        assertEquals(ct, TripleDES.encryptText(text, "0123456789abcdef", "23456789abcdef01", "456789abcdef0123"));
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Traced AES-CBC matches the untraced path                           //
+    // --------------------------------------------------------------------- //
+    @Test
+    void aesCbcTraceMatchesUntraced() {
+        AESKey key = new AESKey(randomBytes(16));
+        byte[] iv = randomBytes(16);
+        byte[] pt = randomBytes(40);
+
+        Recorder rec = new Recorder();
+        byte[] ct = AES.encryptCBC(pt, key, iv, rec);
+        assertArrayEquals(AES.encryptCBC(pt, key, iv), ct);
+        assertEquals(3, rec.blocks);
+
+        Recorder decRec = new Recorder();
+        assertArrayEquals(pt, AES.decryptCBC(ct, key, iv, decRec));
+        assertEquals(3, decRec.blocks);
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
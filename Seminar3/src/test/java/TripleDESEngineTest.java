@@ -0,0 +1,106 @@
+import DES.TripleDES;
+import DES.TripleDESEngine;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the fused 48-round TripleDESEngine.
+ */
+class TripleDESEngineTest {
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final Random RND = new Random(48);
+
+    // --------------------------------------------------------------------- //
+    // 1. Three-key and two-key options match DESede/ECB/NoPadding           //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesJdkDesede() throws Exception {
+        for (int keyLen : new int[]{24, 16}) {
+            byte[] key = randomBytes(keyLen);
+            byte[] plaintext = randomBytes(8 * 50);
+
+            // The JDK only takes 24-byte keys; two-key 3DES is K1 || K2 || K1
+            byte[] jdkKey = Arrays.copyOf(key, 24);
+            if (keyLen == 16) {
+                System.arraycopy(key, 0, jdkKey, 16, 8);
+            }
+            Cipher jdk = Cipher.getInstance("DESede/ECB/NoPadding");
+            jdk.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(jdkKey, "DESede"));
+            byte[] expected = jdk.doFinal(plaintext);
+
+            TripleDESEngine enc = new TripleDESEngine(key, true);
+            TripleDESEngine dec = new TripleDESEngine(key, false);
+            byte[] out = new byte[plaintext.length];
+            for (int i = 0; i < out.length; i += 8) {
+                enc.processBlock(plaintext, i, out, i);
+            }
+            assertArrayEquals(expected, out, keyLen + "-byte key");
+            for (int i = 0; i < out.length; i += 8) {
+                dec.processBlock(out, i, out, i);
+            }
+            assertArrayEquals(plaintext, out, keyLen + "-byte key");
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Same output as the hex-String TripleDES cascade                     //
+    // --------------------------------------------------------------------- //
+    @Test
+    void matchesTripleDesBlockCascade() {
+        String k1 = "0123456789abcdef", k2 = "23456789abcdef01", k3 = "456789abcdef0123";
+        TripleDESEngine enc = new TripleDESEngine(HEX.parseHex(k1 + k2 + k3), true);
+        TripleDESEngine dec = new TripleDESEngine(HEX.parseHex(k1 + k2 + k3), false);
+        for (int i = 0; i < 16; i++) {
+            long block = RND.nextLong();
+            String blockHex = HEX.toHexDigits(block);
+            assertEquals(TripleDES.encryptBlock(blockHex, k1, k2, k3), HEX.toHexDigits(enc.processBlock(block)));
+            assertEquals(TripleDES.decryptBlock(blockHex, k1, k2, k3), HEX.toHexDigits(dec.processBlock(block)));
+        }
+    }
+
+    // --------------------------------------------------------------------- //
+    // 3. ByteBuffer API honours byte order and advances positions           //
+    // --------------------------------------------------------------------- //
+    @Test
+    void byteBufferApiMatchesArrayApi() {
+        byte[] key = randomBytes(24);
+        byte[] data = randomBytes(32);
+        TripleDESEngine enc = new TripleDESEngine(key, true);
+
+        byte[] expected = new byte[32];
+        for (int i = 0; i < 32; i += 8) {
+            enc.processBlock(data, i, expected, i);
+        }
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            ByteBuffer in = ByteBuffer.allocateDirect(32).order(order).put(data).flip();
+            ByteBuffer out = ByteBuffer.allocate(32).order(order);
+            while (in.hasRemaining()) {
+                enc.processBlock(in, out);
+            }
+            assertEquals(32, out.position());
+            assertArrayEquals(expected, out.array(), order.toString());
+        }
+    }
+
+    @Test
+    void rejectsWrongKeyLength() {
+        assertThrows(IllegalArgumentException.class, () -> new TripleDESEngine(new byte[8], true));
+        assertThrows(IllegalArgumentException.class, () -> new TripleDESEngine(new byte[32], true));
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}
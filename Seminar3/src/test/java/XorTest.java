@@ -0,0 +1,72 @@
+import AES.AESEngine;
+import org.junit.jupiter.api.Test;
+import util.Xor;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Wide XOR and the interleaved four-block AES path.
+ */
+class XorTest {
+
+    private static final Random RND = new Random(11);
+
+    // --------------------------------------------------------------------- //
+    // 1. Vector and fallback paths agree with a byte loop at odd offsets    //
+    // --------------------------------------------------------------------- //
+    @Test
+    void xorMatchesByteLoop() {
+        for (int len : new int[]{0, 1, 7, 8, 15, 16, 63, 64, 65, 200, 1031}) {
+            byte[] a = randomBytes(len + 5);
+            byte[] b = randomBytes(len + 3);
+            byte[] expected = new byte[len + 2];
+            for (int i = 0; i < len; i++) {
+                expected[2 + i] = (byte) (a[5 + i] ^ b[3 + i]);
+            }
+
+            byte[] out = new byte[len + 2];
+            Xor.xor(a, 5, b, 3, out, 2, len);
+            assertArrayEquals(expected, out, "len " + len);
+
+            byte[] scalar = new byte[len + 2];
+            Xor.xorScalar(a, 5, b, 3, scalar, 2, len);
+            assertArrayEquals(expected, scalar, "scalar len " + len);
+        }
+    }
+
+    @Test
+    void xorWorksInPlace() {
+        byte[] a = randomBytes(300);
+        byte[] b = randomBytes(300);
+        byte[] copy = a.clone();
+        Xor.xor(a, 0, b, 0, a, 0, 300);
+        Xor.xor(a, 0, b, 0, a, 0, 300);
+        assertArrayEquals(copy, a);
+    }
+
+    // --------------------------------------------------------------------- //
+    // 2. Four interleaved blocks equal four single-block encryptions        //
+    // --------------------------------------------------------------------- //
+    @Test
+    void fourBlockPipelineMatchesSingleBlocks() {
+        for (int keyLen : new int[]{16, 24, 32}) {
+            int[] w = AESEngine.expandKey(randomBytes(keyLen));
+            byte[] in = randomBytes(64 + 3);
+            byte[] expected = new byte[64];
+            for (int i = 0; i < 64; i += 16) {
+                AESEngine.encryptBlock(w, in, 3 + i, expected, i);
+            }
+            byte[] out = new byte[64];
+            AESEngine.encryptBlocks4(w, in, 3, out, 0);
+            assertArrayEquals(expected, out);
+        }
+    }
+
+    private static byte[] randomBytes(int n) {
+        byte[] b = new byte[n];
+        RND.nextBytes(b);
+        return b;
+    }
+}